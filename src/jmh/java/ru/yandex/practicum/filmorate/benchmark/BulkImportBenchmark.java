@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.bulk.BulkImporter;
+import ru.yandex.practicum.filmorate.bulk.ImportFormat;
+import ru.yandex.practicum.filmorate.bulk.ImportKind;
+import ru.yandex.practicum.filmorate.bulk.ImportReport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовый импорт лайков поверх заполненной БД, включая перестроение индексов в конце.
+ * Один вызов — загрузка likesPerImport лайков; после замера они удаляются:
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="BulkImportBenchmark -p users=100000 -p likes=1000000"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param("1000000")
+        public int likesPerImport;
+        @Param({"CSV", "NDJSON"})
+        public ImportFormat format;
+
+        byte[] content;
+        BulkImporter bulkImporter;
+        JdbcTemplate jdbc;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            bulkImporter = state.getBean(BulkImporter.class);
+            jdbc = state.getBean(JdbcTemplate.class);
+            jdbc.execute("CREATE TABLE IF NOT EXISTS LIKE_LIST_SEEDED AS SELECT * FROM LIKE_LIST");
+            Random random = new Random(7);
+            StringBuilder out = new StringBuilder(likesPerImport * 16);
+            if (format == ImportFormat.CSV) {
+                out.append("userId,filmId\n");
+            }
+            for (int i = 0; i < likesPerImport; i++) {
+                int userId = 1 + random.nextInt(state.users);
+                int filmId = 1 + random.nextInt(state.films);
+                if (format == ImportFormat.CSV) {
+                    out.append(userId).append(',').append(filmId).append('\n');
+                } else {
+                    out.append("{\"userId\":").append(userId).append(",\"filmId\":").append(filmId).append("}\n");
+                }
+            }
+            content = out.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Возвращаем исходный набор лайков, чтобы каждый замер загружал столько же новых строк
+        @TearDown(Level.Iteration)
+        public void restoreLikes() {
+            jdbc.update("DELETE FROM LIKE_LIST");
+            jdbc.update("INSERT INTO LIKE_LIST SELECT * FROM LIKE_LIST_SEEDED");
+        }
+    }
+
+    @Benchmark
+    public List<ImportReport> importLikes(Input input) throws IOException {
+        return input.bulkImporter.importAll(List.of(new BulkImporter.Source(ImportKind.LIKES, input.format,
+                new ByteArrayInputStream(input.content))));
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Наполняет пустую БД синтетическими данными пакетными вставками.
+ * Id пользователей и фильмов идут подряд с 1, потому что БД создаётся миграциями заново.
+ * Популярность фильмов неравномерна: малая часть каталога собирает большую часть лайков.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class DatasetSeeder {
+    static final String[] WORDS = {"star", "night", "river", "ghost", "city", "storm", "garden", "iron",
+            "winter", "dream", "shadow", "ocean", "fire", "silent", "golden", "road"};
+    static final int DIRECTORS = 1000;
+    private static final int BATCH = 10_000;
+
+    private final JdbcTemplate jdbc;
+    private final Random random = new Random(42);
+
+    void seed(int films, int users, int likes, int friendsPerUser, int events) {
+        long start = System.currentTimeMillis();
+        insertUsers(users);
+        insertDirectors();
+        insertFilms(films);
+        insertLikes(films, users, likes);
+        insertFriends(users, friendsPerUser);
+        insertEvents(films, users, events);
+        jdbc.update("""
+                UPDATE FILMS f
+                SET LIKES_COUNT = (SELECT COUNT(*) FROM LIKE_LIST ll WHERE ll.FILM_ID = f.FILM_ID)
+                """);
+        log.warn("Данные для замеров загружены за {} мс: {} фильмов, {} пользователей, {} лайков",
+                System.currentTimeMillis() - start, films, users, likes);
+    }
+
+    private void insertUsers(int users) {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@example.com", "user" + i, "User " + i,
+                    Date.valueOf(LocalDate.of(1970 + i % 40, 1 + i % 12, 1 + i % 28))});
+            flushIfFull("INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)", rows, i == users);
+        }
+    }
+
+    private void insertDirectors() {
+        List<Object[]> rows = new ArrayList<>(DIRECTORS);
+        for (int i = 1; i <= DIRECTORS; i++) {
+            rows.add(new Object[]{"Director " + WORDS[i % WORDS.length] + " " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO DIRECTORS (DIRECTOR_NAME) VALUES (?)", rows);
+    }
+
+    private void insertFilms(int films) {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 1; i <= films; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            rows.add(new Object[]{title, "Description " + i,
+                    Date.valueOf(LocalDate.of(1950 + i % 75, 1 + i % 12, 1 + i % 28)), 60 + i % 120, 1 + i % 5});
+            flushIfFull("""
+                    INSERT INTO FILMS (FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID)
+                    VALUES (?, ?, ?, ?, ?)
+                    """, rows, i == films);
+        }
+        List<Object[]> genres = new ArrayList<>(BATCH);
+        List<Object[]> directors = new ArrayList<>(BATCH);
+        for (int i = 1; i <= films; i++) {
+            genres.add(new Object[]{i, 1 + i % 6});
+            directors.add(new Object[]{i, 1 + i % DIRECTORS});
+            flushIfFull("INSERT INTO GENRES_SAVE (FILM_ID, GENRE_ID) VALUES (?, ?)", genres, i == films);
+            flushIfFull("INSERT INTO DIRECTORS_SAVE (FILM_ID, DIRECTOR_ID) VALUES (?, ?)", directors, i == films);
+        }
+    }
+
+    private void insertLikes(int films, int users, int likes) {
+        int perUser = Math.max(1, likes / users);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        Set<Integer> liked = new HashSet<>();
+        for (int user = 1; user <= users; user++) {
+            liked.clear();
+            while (liked.size() < Math.min(perUser, films)) {
+                liked.add(skewed(films));
+            }
+            for (int film : liked) {
+                rows.add(new Object[]{film, user});
+                flushIfFull("INSERT INTO LIKE_LIST (FILM_ID, USER_ID) VALUES (?, ?)", rows, false);
+            }
+        }
+        flushIfFull("INSERT INTO LIKE_LIST (FILM_ID, USER_ID) VALUES (?, ?)", rows, true);
+    }
+
+    private void insertFriends(int users, int friendsPerUser) {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        Set<Integer> friends = new HashSet<>();
+        for (int user = 1; user <= users; user++) {
+            friends.clear();
+            while (friends.size() < Math.min(friendsPerUser, users - 1)) {
+                int friend = 1 + random.nextInt(users);
+                if (friend != user) {
+                    friends.add(friend);
+                }
+            }
+            for (int friend : friends) {
+                rows.add(new Object[]{user, friend});
+                flushIfFull("INSERT INTO FRIENDS_LIST (USER_ID, FRIEND_ID) VALUES (?, ?)", rows, false);
+            }
+        }
+        flushIfFull("INSERT INTO FRIENDS_LIST (USER_ID, FRIEND_ID) VALUES (?, ?)", rows, true);
+    }
+
+    // У каждого пользователя есть хотя бы одно событие, если событий не меньше, чем пользователей
+    private void insertEvents(int films, int users, int events) {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < events; i++) {
+            rows.add(new Object[]{1 + i % users, "LIKE", "ADD", 1 + random.nextInt(films)});
+            flushIfFull("INSERT INTO EVENTS (USER_ID, EVENT_TYPE, OPERATION, ENTITY_ID) VALUES (?, ?, ?, ?)",
+                    rows, i == events - 1);
+        }
+    }
+
+    private int skewed(int films) {
+        return 1 + (int) (films * Math.pow(random.nextDouble(), 3));
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows, boolean last) {
+        if (!rows.isEmpty() && (rows.size() >= BATCH || last)) {
+            jdbc.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
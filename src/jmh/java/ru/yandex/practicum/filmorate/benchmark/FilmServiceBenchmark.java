@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmServiceBenchmark {
+
+    @Benchmark
+    public Collection<Film> getTopFilms(FilmorateState state) {
+        return state.filmService.getTopFilms(10, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsByGenre(FilmorateState state) {
+        return state.filmService.getTopFilms(10, 1 + ThreadLocalRandom.current().nextInt(6), null);
+    }
+
+    @Benchmark
+    public Collection<Film> searchFilms(FilmorateState state) {
+        return state.filmService.searchFilms(state.randomWord(), "title,director", 100);
+    }
+
+    @Benchmark
+    public Collection<Film> getRecommendations(FilmorateState state) {
+        return state.filmService.getRecommendations(state.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<Film> getCommonFilms(FilmorateState state) {
+        return state.filmService.getCommonFilms(state.randomUserId(), state.randomUserId());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.index.IndexInitializer;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Контекст приложения без веб-сервера над H2 в памяти, наполненной синтетическими данными.
+ * Размер набора задаётся параметрами JMH, например -p films=1000 -p users=10000 -p likes=100000.
+ * Параметр schema — версия, до которой применяются миграции Flyway (latest — все).
+ */
+@State(Scope.Benchmark)
+public class FilmorateState {
+    @Param("10000")
+    public int films;
+    @Param("100000")
+    public int users;
+    @Param("1000000")
+    public int likes;
+    @Param("10")
+    public int friendsPerUser;
+    @Param("200000")
+    public int events;
+    @Param("latest")
+    public String schema;
+
+    FilmService filmService;
+    UserService userService;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:filmorate-jmh;DB_CLOSE_DELAY=-1",
+                        "spring.flyway.target=" + schema,
+                        "logging.level.root=WARN",
+                        // Фоновые проверки и перестроения не должны попадать в замер
+                        "filmorate.popular.check-interval-ms=86400000",
+                        "filmorate.similar.rebuild-interval-ms=86400000")
+                .run();
+        new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(films, users, likes, friendsPerUser, events);
+        // Индексы, лента и кэши построены при старте по пустой БД — тёплый старт повторяется по загруженным данным
+        context.getBean(IndexInitializer.class).run(new DefaultApplicationArguments());
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int randomFilmId() {
+        return 1 + ThreadLocalRandom.current().nextInt(films);
+    }
+
+    int randomUserId() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    String randomWord() {
+        return DatasetSeeder.WORDS[ThreadLocalRandom.current().nextInt(DatasetSeeder.WORDS.length)];
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.index.IndexInitializer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузка через HTTP на запущенное приложение: много одновременных клиентов против ограниченного
+ * пула потоков Tomcat (platform) и виртуальных потоков с параллельными выборками (virtual).
+ * Throughput даёт пропускную способность, SampleTime — перцентили задержки, в том числе p0.99:
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="HttpLoadBenchmark"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class HttpLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"platform", "virtual"})
+        public String threads;
+        @Param("1000")
+        public int films;
+        @Param("10000")
+        public int users;
+        @Param("100000")
+        public int likes;
+        // Потоков Tomcat в режиме platform
+        @Param("50")
+        public int tomcatThreads;
+
+        HttpClient client;
+        String baseUrl;
+        private ConfigurableApplicationContext context;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            boolean virtual = "virtual".equals(threads);
+            context = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .web(WebApplicationType.SERVLET)
+                    .properties(
+                            "server.port=0",
+                            "server.tomcat.threads.max=" + tomcatThreads,
+                            "spring.threads.virtual.enabled=" + virtual,
+                            "filmorate.concurrent-lookups=" + virtual,
+                            "spring.datasource.url=jdbc:h2:mem:filmorate-load;DB_CLOSE_DELAY=-1",
+                            "logging.level.root=WARN",
+                            "filmorate.popular.check-interval-ms=86400000",
+                            "filmorate.similar.rebuild-interval-ms=86400000")
+                    .run();
+            new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(films, users, likes, 10, users);
+            context.getBean(IndexInitializer.class).run(new DefaultApplicationArguments());
+            client = HttpClient.newHttpClient();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            client.close();
+            context.close();
+        }
+
+        int randomFilmId() {
+            return 1 + ThreadLocalRandom.current().nextInt(films);
+        }
+
+        int randomUserId() {
+            return 1 + ThreadLocalRandom.current().nextInt(users);
+        }
+    }
+
+    @Benchmark
+    public int getCommonFriends(Server server) throws IOException, InterruptedException {
+        return get(server, "/users/" + server.randomUserId() + "/friends/common/" + server.randomUserId());
+    }
+
+    @Benchmark
+    public int getCommonFilms(Server server) throws IOException, InterruptedException {
+        return get(server, "/films/common?userId=" + server.randomUserId() + "&friendId=" + server.randomUserId());
+    }
+
+    @Benchmark
+    public int likeFilm(Server server) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl + "/films/" + server.randomFilmId()
+                        + "/like/" + server.randomUserId()))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static int get(Server server, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl + path)).GET().build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
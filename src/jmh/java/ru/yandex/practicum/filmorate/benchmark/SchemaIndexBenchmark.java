@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы к БД, которые ускоряют вторичные индексы миграций, в обход кэшей в памяти.
+ * Сравнение до и после миграции: -p schema=2,latest (V3 — вторичные индексы).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaIndexBenchmark {
+    private static final int FILMS_PER_PAGE = 50;
+
+    @State(Scope.Benchmark)
+    public static class Storages {
+        LikesStorage likesStorage;
+        EventStorage eventStorage;
+        GenreStorage genreStorage;
+        RecentEventsBuffer recentEvents;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            likesStorage = state.getBean(LikesStorage.class);
+            eventStorage = state.getBean(EventStorage.class);
+            genreStorage = state.getBean(GenreStorage.class);
+            recentEvents = state.getBean(RecentEventsBuffer.class);
+        }
+    }
+
+    @Benchmark
+    public Set<Integer> getLikedFilmsByUser(FilmorateState state, Storages storages) {
+        return storages.likesStorage.getLikedFilmsByUser(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<Event> getFeedUserById(FilmorateState state, Storages storages) {
+        // Иначе часть пользователей отвечается из буфера последних событий без запроса к БД
+        storages.recentEvents.clear();
+        return storages.eventStorage.getFeedUserById(state.randomUserId());
+    }
+
+    @Benchmark
+    public Map<Integer, Set<Genre>> getGenresForFilmIds(FilmorateState state, Storages storages) {
+        Set<Integer> filmIds = new HashSet<>();
+        while (filmIds.size() < Math.min(FILMS_PER_PAGE, state.films)) {
+            filmIds.add(state.randomFilmId());
+        }
+        return storages.genreStorage.getGenresForFilmIds(filmIds);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Перестроение модели похожих фильмов по синтетическим лайкам, без БД и контекста приложения.
+ * Лежит в пакете index, чтобы вызывать {@link SimilarFilmsIndex#build} напрямую.
+ * Выделение памяти на перестроение показывает профилировщик gc:
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="SimilarFilmsIndexBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimilarFilmsIndexBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Likes {
+        @Param("20000")
+        public int users;
+        @Param("20000")
+        public int films;
+        @Param("50")
+        public int likesPerUser;
+
+        int[] userIds;
+        int[] filmIds;
+
+        // Популярность фильмов убывает по степенному закону, как у реального каталога.
+        // Лайки идут по возрастанию пользователя и фильма, как в выборке из LIKE_LIST
+        @Setup(Level.Trial)
+        public void setUp() {
+            userIds = new int[users * likesPerUser];
+            filmIds = new int[users * likesPerUser];
+            Random random = new Random(42);
+            int next = 0;
+            for (int user = 1; user <= users; user++) {
+                boolean[] liked = new boolean[films + 1];
+                int count = 0;
+                while (count < likesPerUser) {
+                    int film = 1 + (int) (films * Math.pow(random.nextDouble(), 3));
+                    if (!liked[film]) {
+                        liked[film] = true;
+                        count++;
+                    }
+                }
+                for (int film = 1; film <= films; film++) {
+                    if (liked[film]) {
+                        userIds[next] = user;
+                        filmIds[next] = film;
+                        next++;
+                    }
+                }
+            }
+        }
+
+        Consumer<BiConsumer<Integer, Integer>> source() {
+            return consumer -> {
+                for (int i = 0; i < userIds.length; i++) {
+                    consumer.accept(userIds[i], filmIds[i]);
+                }
+            };
+        }
+    }
+
+    // Модель — пакетный тип, поэтому наружу, в сгенерированный JMH код, она уходит как Object
+    @Benchmark
+    public Object rebuild(Likes likes) {
+        return SimilarFilmsIndex.build(likes.source());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Импорт из командной строки: при наличии хотя бы одного из параметров --import-users, --import-films,
+ * --import-likes файлы загружаются в этом порядке, после чего приложение завершается.
+ * Формат определяется по расширению: .csv — CSV, остальное — NDJSON.
+ * java -jar filmorate.jar --spring.main.web-application-type=none --import-users=users.csv --import-likes=likes.ndjson
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class BulkImportRunner implements ApplicationRunner {
+    private static final String OPTION_PREFIX = "import-";
+
+    private final BulkImporter bulkImporter;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<ImportKind> kinds = new ArrayList<>();
+        for (ImportKind kind : ImportKind.values()) {
+            String option = OPTION_PREFIX + kind.name().toLowerCase();
+            if (args.containsOption(option)) {
+                for (String file : args.getOptionValues(option)) {
+                    files.add(Path.of(file));
+                    kinds.add(kind);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        int exitCode = 0;
+        List<InputStream> streams = new ArrayList<>(files.size());
+        try {
+            List<BulkImporter.Source> sources = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                InputStream in = Files.newInputStream(files.get(i));
+                streams.add(in);
+                sources.add(new BulkImporter.Source(kinds.get(i),
+                        ImportFormat.fromFileName(files.get(i).getFileName().toString()), in));
+            }
+            for (ImportReport report : bulkImporter.importAll(sources)) {
+                log.info("{}: записано {}, отклонено {}, {} мс", report.kind(), report.accepted(), report.rejected(),
+                        report.durationMs());
+                report.errors().forEach(error -> log.warn("{}: {}", report.kind(), error));
+            }
+        } catch (RuntimeException | IOException e) {
+            log.error("Импорт прерван", e);
+            exitCode = 1;
+        } finally {
+            for (InputStream in : streams) {
+                in.close();
+            }
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
@@ -0,0 +1,514 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.BulkImportStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Массовая загрузка пользователей, фильмов и лайков в обход поштучного API.
+ * Записи читаются из потока по одной, ссылки проверяются по множествам id в памяти,
+ * а запись идёт пакетными вставками частями по filmorate.import.chunk-size, каждая часть — в своей транзакции.
+ * Id, которые выдаёт импорт, заранее резервируются сдвигом счётчика в БД, поэтому API во время импорта
+ * их не получит. События ленты при импорте не создаются. Индексы и счётчики лайков перестраиваются один раз после
+ * всех источников; записанные части остаются в БД, даже если загрузка прервалась ошибкой.
+ * Одновременно выполняется только один импорт.
+ */
+@Slf4j
+@Service
+public class BulkImporter {
+    // FILMS.FILM_NAME VARCHAR(255)
+    private static final int MAX_FILM_NAME_LENGTH = 255;
+
+    private final BulkImportStorage bulkImportStorage;
+    private final ReferenceDataCache referenceDataCache;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final RecommendationEngine recommendationEngine;
+    private final SimilarFilmsIndex similarFilmsIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader userReader;
+    private final ObjectReader filmReader;
+    private final ObjectReader likeReader;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    public BulkImporter(BulkImportStorage bulkImportStorage,
+                        ReferenceDataCache referenceDataCache,
+                        PopularFilmsIndex popularFilmsIndex,
+                        RecommendationEngine recommendationEngine,
+                        SimilarFilmsIndex similarFilmsIndex,
+                        FilmSearchIndex filmSearchIndex,
+                        TransactionTemplate transactionTemplate,
+                        Validator validator,
+                        ObjectMapper objectMapper,
+                        @Value("${filmorate.import.chunk-size:10000}") int chunkSize,
+                        @Value("${filmorate.import.max-errors:100}") int maxErrors) {
+        this.bulkImportStorage = bulkImportStorage;
+        this.referenceDataCache = referenceDataCache;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.recommendationEngine = recommendationEngine;
+        this.similarFilmsIndex = similarFilmsIndex;
+        this.filmSearchIndex = filmSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.userReader = objectMapper.readerFor(User.class);
+        this.filmReader = objectMapper.readerFor(Film.class);
+        this.likeReader = objectMapper.readerFor(LikeRecord.class);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public record Source(ImportKind kind, ImportFormat format, InputStream in) {
+    }
+
+    /**
+     * Загружает источники по очереди и перестраивает производные структуры один раз в конце.
+     */
+    public List<ImportReport> importAll(List<Source> sources) throws IOException {
+        if (!running.tryLock()) {
+            throw new ValidationException("Импорт уже выполняется");
+        }
+        try {
+            Session session = new Session();
+            List<ImportReport> reports = new ArrayList<>(sources.size());
+            try {
+                for (Source source : sources) {
+                    reports.add(importSource(session, source));
+                }
+            } finally {
+                rebuild(session);
+            }
+            return reports;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private ImportReport importSource(Session session, Source source) throws IOException {
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(source.in(), StandardCharsets.UTF_8),
+                1 << 16);
+        Function<String, Map<String, String>> csv = null;
+        if (source.format() == ImportFormat.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return progress.report(source.kind(), start);
+            }
+            csv = csvRows(header);
+            progress.line++;
+        }
+        switch (source.kind()) {
+            case USERS -> load(reader, progress,
+                    parser(csv, userReader, BulkImporter::toUser),
+                    user -> checkUser(session, user),
+                    bulkImportStorage::insertUsers);
+            case FILMS -> load(reader, progress,
+                    parser(csv, filmReader, BulkImporter::toFilm),
+                    film -> checkFilm(session, film),
+                    films -> {
+                        bulkImportStorage.insertFilms(films);
+                        session.filmsChanged = true;
+                    });
+            case LIKES -> load(reader, progress,
+                    parser(csv, likeReader, BulkImporter::toLike),
+                    like -> checkLike(session, like),
+                    likes -> {
+                        bulkImportStorage.insertLikes(likes.stream()
+                                .map(like -> new int[]{like.userId(), like.filmId()})
+                                .toList());
+                        session.likesChanged = true;
+                    });
+        }
+        ImportReport report = progress.report(source.kind(), start);
+        log.info("Импорт {}: записано {}, отклонено {} за {} мс", report.kind(), report.accepted(),
+                report.rejected(), report.durationMs());
+        return report;
+    }
+
+    private <T> void load(BufferedReader reader, Progress progress, Function<String, T> parser,
+                          Function<T, String> check, Consumer<List<T>> writer) throws IOException {
+        List<T> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            progress.line++;
+            if (line.isBlank()) {
+                continue;
+            }
+            T record;
+            try {
+                record = parser.apply(line);
+            } catch (RuntimeException e) {
+                progress.reject("запись не разобрана: " + e.getMessage());
+                continue;
+            }
+            String error = check.apply(record);
+            if (error != null) {
+                progress.reject(error);
+                continue;
+            }
+            chunk.add(record);
+            if (chunk.size() >= chunkSize) {
+                write(chunk, writer, progress);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, writer, progress);
+        }
+    }
+
+    private <T> void write(List<T> chunk, Consumer<List<T>> writer, Progress progress) {
+        transactionTemplate.executeWithoutResult(status -> writer.accept(chunk));
+        progress.accepted += chunk.size();
+    }
+
+    // Проверки регистрируют id и логины принятых записей, поэтому дубликаты внутри файла тоже отклоняются
+
+    private String checkUser(Session session, User user) {
+        String violations = violations(user);
+        if (violations != null) {
+            return violations;
+        }
+        IdRange userIds = session.userIds();
+        Set<String> logins = session.logins();
+        if (user.getId() != null && (user.getId() < 1 || userIds.isTaken(user.getId()))) {
+            return "пользователь с id " + user.getId() + " уже существует или id некорректен";
+        }
+        if (logins.contains(user.getLogin())) {
+            return "логин " + user.getLogin() + " уже занят";
+        }
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+        if (user.getId() == null) {
+            user.setId(userIds.allocate());
+        }
+        userIds.add(user.getId());
+        logins.add(user.getLogin());
+        return null;
+    }
+
+    private String checkFilm(Session session, Film film) {
+        String violations = violations(film);
+        if (violations != null) {
+            return violations;
+        }
+        // Аннотации Film не требуют этих полей, а колонки FILMS — NOT NULL: без проверки
+        // ошибка вставки откатила бы всю часть и прервала импорт
+        if (film.getReleaseDate() == null) {
+            return "releaseDate не указана";
+        }
+        if (film.getDuration() == null) {
+            return "duration не указана";
+        }
+        if (film.getName().length() > MAX_FILM_NAME_LENGTH) {
+            return "name длиннее " + MAX_FILM_NAME_LENGTH + " символов";
+        }
+        IdRange filmIds = session.filmIds();
+        if (film.getId() != null && (film.getId() < 1 || filmIds.isTaken(film.getId()))) {
+            return "фильм с id " + film.getId() + " уже существует или id некорректен";
+        }
+        if (film.getMpa() == null || !session.references().ratingIds().contains(film.getMpa().getId())) {
+            return "рейтинг МПА не указан или не найден";
+        }
+        if (film.getGenres() != null && film.getGenres().stream()
+                .anyMatch(genre -> !session.references().genreIds().contains(genre.getId()))) {
+            return "жанр не найден";
+        }
+        if (film.getDirectors() != null && film.getDirectors().stream()
+                .anyMatch(director -> !session.references().directorIds().contains(director.getId()))) {
+            return "режиссёр не найден";
+        }
+        if (film.getId() == null) {
+            film.setId(filmIds.allocate());
+        }
+        filmIds.add(film.getId());
+        return null;
+    }
+
+    private String checkLike(Session session, LikeRecord like) {
+        if (like.userId() == null || like.userId() < 1 || !session.userIds().contains(like.userId())) {
+            return "пользователь с id " + like.userId() + " не найден";
+        }
+        if (like.filmId() == null || like.filmId() < 1 || !session.filmIds().contains(like.filmId())) {
+            return "фильм с id " + like.filmId() + " не найден";
+        }
+        return null;
+    }
+
+    private <T> String violations(T record) {
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void rebuild(Session session) {
+        if (session.filmsChanged || session.likesChanged) {
+            // Перестройка рейтинга заодно пересчитывает FILMS.LIKES_COUNT
+            popularFilmsIndex.rebuild();
+        }
+        if (session.filmsChanged) {
+            filmSearchIndex.rebuild();
+        }
+        if (session.likesChanged) {
+            recommendationEngine.rebuild();
+            similarFilmsIndex.rebuild();
+        }
+    }
+
+    // Разбор записей: NDJSON — тем же ObjectMapper, что и REST API; CSV — по именам колонок из заголовка
+
+    private static <T> Function<String, T> parser(Function<String, Map<String, String>> csv, ObjectReader json,
+                                                  Function<Map<String, String>, T> fromCsv) {
+        if (csv != null) {
+            return csv.andThen(fromCsv);
+        }
+        return line -> {
+            try {
+                return json.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static Function<String, Map<String, String>> csvRows(String header) {
+        List<String> columns = CsvLine.split(header).stream().map(String::trim).toList();
+        return line -> {
+            List<String> fields = CsvLine.split(line);
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) {
+                    row.put(columns.get(i), fields.get(i));
+                }
+            }
+            return row;
+        };
+    }
+
+    private static User toUser(Map<String, String> row) {
+        return User.builder()
+                .id(intOrNull(row.get("id")))
+                .email(row.get("email"))
+                .login(row.get("login"))
+                .name(row.get("name"))
+                .birthday(dateOrNull(row.get("birthday")))
+                .build();
+    }
+
+    private static Film toFilm(Map<String, String> row) {
+        Integer mpa = intOrNull(row.get("mpa"));
+        return Film.builder()
+                .id(intOrNull(row.get("id")))
+                .name(row.get("name"))
+                .description(row.get("description"))
+                .releaseDate(dateOrNull(row.get("releaseDate")))
+                .duration(intOrNull(row.get("duration")))
+                .mpa(mpa == null ? null : new Rating(mpa, null))
+                .genres(idList(row.get("genres"), id -> Genre.builder().id(id).build()))
+                .directors(idList(row.get("directors"), id -> Director.builder().id(id).build()))
+                .build();
+    }
+
+    private static LikeRecord toLike(Map<String, String> row) {
+        return new LikeRecord(intOrNull(row.get("userId")), intOrNull(row.get("filmId")));
+    }
+
+    // Список id в одном поле CSV разделяется точкой с запятой: "1;4;6"
+    private static <T> Set<T> idList(String value, Function<Integer, T> factory) {
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split(";"))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(id -> factory.apply(Integer.parseInt(id)))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Integer intOrNull(String value) {
+        return value == null ? null : Integer.valueOf(value.trim());
+    }
+
+    private static LocalDate dateOrNull(String value) {
+        return value == null ? null : LocalDate.parse(value.trim());
+    }
+
+    record LikeRecord(Integer userId, Integer filmId) {
+    }
+
+    private record References(Set<Integer> ratingIds, Set<Integer> genreIds, Set<Integer> directorIds) {
+    }
+
+    /**
+     * Состояние одного вызова importAll: множества id загружаются из БД при первой надобности
+     * и пополняются принятыми записями, так что лайки могут ссылаться на фильмы и пользователей
+     * из предыдущих источников того же импорта.
+     */
+    private class Session {
+        private IdRange userIds;
+        private IdRange filmIds;
+        private Set<String> logins;
+        private References references;
+        private boolean filmsChanged;
+        private boolean likesChanged;
+
+        IdRange userIds() {
+            if (userIds == null) {
+                userIds = new IdRange(bulkImportStorage::getUserIds, bulkImportStorage::restartUserIds);
+            }
+            return userIds;
+        }
+
+        IdRange filmIds() {
+            if (filmIds == null) {
+                filmIds = new IdRange(bulkImportStorage::getFilmIds, bulkImportStorage::restartFilmIds);
+            }
+            return filmIds;
+        }
+
+        Set<String> logins() {
+            if (logins == null) {
+                logins = bulkImportStorage.getUserLogins();
+            }
+            return logins;
+        }
+
+        References references() {
+            if (references == null) {
+                references = new References(
+                        referenceDataCache.getRatings().stream().map(Rating::getId).collect(Collectors.toSet()),
+                        referenceDataCache.getGenres().stream().map(Genre::getId).collect(Collectors.toSet()),
+                        referenceDataCache.getDirectors().stream().map(Director::getId).collect(Collectors.toSet()));
+            }
+            return references;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdLoader {
+        BitSet load(int from, int to);
+    }
+
+    /**
+     * Id одной таблицы: занятые в БД и принятые импортом. Id ниже reserved счётчик БД уже не выдаст:
+     * перед тем как принять id за этой границей, счётчик сдвигается за него с запасом в часть записей,
+     * а строки, вставленные через API в новый диапазон до сдвига, дочитываются из БД.
+     * Id без явного значения выдаются после наибольшего известного, как это делает счётчик в БД.
+     */
+    private class IdRange {
+        private final IdLoader loader;
+        private final IntConsumer restart;
+        private final BitSet taken;
+        private int next;
+        private int reserved;
+
+        IdRange(IdLoader loader, IntConsumer restart) {
+            this.loader = loader;
+            this.restart = restart;
+            this.taken = loader.load(0, Integer.MAX_VALUE);
+            this.next = Math.max(1, taken.length());
+            this.reserved = next;
+            reserve(next);
+        }
+
+        boolean contains(int id) {
+            return taken.get(id);
+        }
+
+        boolean isTaken(int id) {
+            reserve(id);
+            return taken.get(id);
+        }
+
+        int allocate() {
+            while (next >= reserved) {
+                reserve(next);
+            }
+            return next;
+        }
+
+        void add(int id) {
+            taken.set(id);
+            next = Math.max(next, id + 1);
+        }
+
+        private void reserve(int id) {
+            if (id < reserved) {
+                return;
+            }
+            int bound = (int) Math.min(Integer.MAX_VALUE, (long) id + 1 + chunkSize);
+            restart.accept(bound);
+            BitSet inserted = loader.load(reserved, bound);
+            taken.or(inserted);
+            next = Math.max(next, inserted.length());
+            reserved = bound;
+        }
+    }
+
+    private class Progress {
+        private final List<String> errors = new ArrayList<>();
+        private long line;
+        private long accepted;
+        private long rejected;
+
+        void reject(String error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add("строка " + line + ": " + error);
+            }
+        }
+
+        ImportReport report(ImportKind kind, long start) {
+            return new ImportReport(kind, accepted, rejected, List.copyOf(errors),
+                    System.currentTimeMillis() - start);
+        }
+    }
+}
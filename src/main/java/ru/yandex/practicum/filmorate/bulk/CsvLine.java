@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор строки CSV: поля через запятую, поле в кавычках может содержать запятые и удвоенные кавычки.
+ * Перевод строки внутри поля не поддерживается — запись занимает ровно одну строку.
+ */
+final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Таблицы, попадающие в выгрузку. Строки выгружаются по возрастанию первичного ключа,
+ * поэтому прерванную выгрузку можно продолжить с ключа последней полученной строки.
+ */
+public enum ExportTable {
+    FILMS("FILMS", "FILM_ID"),
+    USERS("USERS", "USER_ID"),
+    LIKES("LIKE_LIST", "FILM_ID", "USER_ID"),
+    FRIENDS("FRIENDS_LIST", "USER_ID", "FRIEND_ID"),
+    REVIEWS("REVIEWS", "REVIEW_ID"),
+    EVENTS("EVENTS", "EVENT_ID");
+
+    private final String tableName;
+    private final List<String> keyColumns;
+
+    ExportTable(String tableName, String... keyColumns) {
+        this.tableName = tableName;
+        this.keyColumns = List.of(keyColumns);
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<String> keyColumns() {
+        return keyColumns;
+    }
+
+    public String fileName() {
+        return name().toLowerCase() + ".ndjson.gz";
+    }
+
+    public static ExportTable of(String name) {
+        for (ExportTable table : values()) {
+            if (table.name().equalsIgnoreCase(name)) {
+                return table;
+            }
+        }
+        throw new ValidationException("Неизвестная таблица выгрузки: " + name);
+    }
+
+    /**
+     * Ключ строки, после которой продолжить выгрузку: значения ключевых колонок через запятую, например "12,40".
+     */
+    public int[] parseKey(String key) {
+        String[] parts = key.split(",");
+        if (parts.length != keyColumns.size()) {
+            throw new ValidationException("Ключ таблицы " + name().toLowerCase() + " состоит из колонок "
+                    + String.join(", ", keyColumns));
+        }
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                values[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Некорректный ключ выгрузки: " + key);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+/**
+ * Формат входных данных: NDJSON — по JSON-объекту в строке в том же виде, что и в REST API;
+ * CSV — строка заголовка с именами полей, затем по записи в строке.
+ */
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static ImportFormat fromContentType(String contentType) {
+        return contentType != null && contentType.startsWith(CSV_MEDIA_TYPE) ? CSV : NDJSON;
+    }
+
+    public static ImportFormat fromFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Что загружается. Фильмы и пользователи должны быть загружены раньше лайков, которые на них ссылаются.
+ */
+public enum ImportKind {
+    USERS,
+    FILMS,
+    LIKES;
+
+    public static ImportKind of(String name) {
+        for (ImportKind kind : values()) {
+            if (kind.name().equalsIgnoreCase(name)) {
+                return kind;
+            }
+        }
+        throw new ValidationException("Неизвестный тип импорта: " + name);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import java.util.List;
+
+/**
+ * Итог загрузки одного источника: сколько записей записано и отклонено,
+ * первые ошибки с номерами строк и длительность.
+ */
+public record ImportReport(ImportKind kind, long accepted, long rejected, List<String> errors, long durationMs) {
+}
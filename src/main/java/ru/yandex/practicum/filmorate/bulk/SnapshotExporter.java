@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.storage.SnapshotStorage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка таблиц в NDJSON: по JSON-объекту на строку таблицы, ключи — имена колонок.
+ * Строки идут потоком из БД с ограниченным размером выборки и сразу пишутся в выход, поэтому память
+ * не зависит от размера таблицы. Снимок нескольких таблиц читается в одной транзакции SERIALIZABLE
+ * и согласован между таблицами: в H2 при этом уровне первый запрос фиксирует версию всех таблиц сразу,
+ * а REPEATABLE READ фиксирует каждую таблицу лишь при первом обращении к ней.
+ * Ночной снимок пишется в filmorate.export.dir по расписанию filmorate.export.cron.
+ */
+@Slf4j
+@Service
+public class SnapshotExporter implements MeterBinder {
+    private static final DateTimeFormatter SNAPSHOT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SnapshotStorage snapshotStorage;
+    private final TransactionTemplate snapshotTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path exportDir;
+
+    private final Map<ExportTable, AtomicLong> rows = new EnumMap<>(ExportTable.class);
+    private final Map<ExportTable, AtomicLong> exports = new EnumMap<>(ExportTable.class);
+    private final Map<ExportTable, AtomicLong> exportNanos = new EnumMap<>(ExportTable.class);
+
+    public SnapshotExporter(SnapshotStorage snapshotStorage,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${filmorate.export.dir:./export}") String exportDir) {
+        this.snapshotStorage = snapshotStorage;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.snapshotTransaction.setReadOnly(true);
+        this.exportDir = Path.of(exportDir);
+        for (ExportTable table : ExportTable.values()) {
+            rows.put(table, new AtomicLong());
+            exports.put(table, new AtomicLong());
+            exportNanos.put(table, new AtomicLong());
+        }
+    }
+
+    /**
+     * Потребитель снимка: получает выход для очередной таблицы и закрывает его после выгрузки.
+     */
+    public interface SnapshotSink {
+        OutputStream open(ExportTable table) throws IOException;
+
+        void close(ExportTable table, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Выгружает таблицу после строки с ключом after (null — целиком); возвращает число строк.
+     */
+    public long exportTable(ExportTable table, int[] after, OutputStream out) throws IOException {
+        try {
+            return snapshotTransaction.execute(status -> write(table, after, out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Выгружает таблицы одним согласованным снимком.
+     */
+    public void exportSnapshot(Collection<ExportTable> tables, SnapshotSink sink) throws IOException {
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                for (ExportTable table : tables) {
+                    try {
+                        OutputStream out = sink.open(table);
+                        write(table, null, out);
+                        sink.close(table, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Ночной снимок всех таблиц: каталог с файлами &lt;таблица&gt;.ndjson.gz. Каталог пишется под временным
+     * именем и переименовывается после выгрузки всех таблиц, поэтому незавершённый снимок не виден.
+     */
+    @Scheduled(cron = "${filmorate.export.cron:-}")
+    public void exportNightly() throws IOException {
+        String name = LocalDateTime.now().format(SNAPSHOT_NAME);
+        Path partial = exportDir.resolve(name + ".partial");
+        Files.createDirectories(partial);
+        long start = System.currentTimeMillis();
+        exportSnapshot(List.of(ExportTable.values()), new SnapshotSink() {
+            @Override
+            public OutputStream open(ExportTable table) throws IOException {
+                return new GZIPOutputStream(Files.newOutputStream(partial.resolve(table.fileName())), 1 << 16);
+            }
+
+            @Override
+            public void close(ExportTable table, OutputStream out) throws IOException {
+                out.close();
+            }
+        });
+        Files.move(partial, exportDir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        log.info("Снимок данных {} выгружен за {} мс", exportDir.resolve(name), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ExportTable table : ExportTable.values()) {
+            String tag = table.name().toLowerCase();
+            FunctionCounter.builder("filmorate.export.rows", rows.get(table), AtomicLong::get)
+                    .tag("table", tag)
+                    .register(registry);
+            FunctionTimer.builder("filmorate.export.duration", table,
+                            t -> exports.get(t).get(), t -> exportNanos.get(t).get(), TimeUnit.NANOSECONDS)
+                    .tag("table", tag)
+                    .register(registry);
+        }
+    }
+
+    // Поток не закрывается: выход принадлежит вызывающему, здесь только сбрасывается буфер генератора
+    private long write(ExportTable table, int[] after, OutputStream out) {
+        long start = System.nanoTime();
+        long count = 0;
+        List<String> columns = snapshotStorage.getColumns(table);
+        try (Stream<Object[]> stream = snapshotStorage.streamRows(table, after)) {
+            JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                writeRow(generator, columns, row);
+                count++;
+            }
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long nanos = System.nanoTime() - start;
+        rows.get(table).addAndGet(count);
+        exports.get(table).incrementAndGet();
+        exportNanos.get(table).addAndGet(nanos);
+        log.info("Выгружено {} строк таблицы {} за {} мс ({} строк/с)", count, table, nanos / 1_000_000,
+                nanos == 0 ? count : count * 1_000_000_000L / nanos);
+        return count;
+    }
+
+    private static void writeRow(JsonGenerator generator, List<String> columns, Object[] row) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < row.length; i++) {
+            generator.writeFieldName(columns.get(i).toLowerCase());
+            Object value = row[i];
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Number number) {
+                generator.writeNumber(number.longValue());
+            } else if (value instanceof Boolean bool) {
+                generator.writeBoolean(bool);
+            } else if (value instanceof Date date) {
+                generator.writeString(date.toLocalDate().toString());
+            } else if (value instanceof Timestamp timestamp) {
+                generator.writeString(timestamp.toLocalDateTime().toString());
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
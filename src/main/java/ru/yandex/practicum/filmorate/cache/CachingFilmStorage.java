@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.service.enums.SortedBy;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище фильмов с кэшем собранных фильмов перед {@link FilmRepository}.
+ * Кэшируется только выборка по id; остальные запросы идут напрямую в БД.
+ * Запись сбрасывает затронутые фильмы сразу и повторно после завершения транзакции,
+ * а счётчик эпох не даёт загрузке, начатой до записи, положить в кэш устаревшее значение.
+ */
+@Slf4j
+@Primary
+@Component
+public class CachingFilmStorage implements FilmStorage, MeterBinder {
+    private final FilmRepository filmRepository;
+    private final SegmentedLruCache<Integer, Film> cache;
+
+    private final Object lock = new Object();
+    private long epoch;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    public CachingFilmStorage(FilmRepository filmRepository,
+                              @Value("${filmorate.cache.films.max-size:10000}") int maxSize,
+                              @Value("${filmorate.cache.films.ttl-ms:600000}") long ttlMs) {
+        this.filmRepository = filmRepository;
+        this.cache = new SegmentedLruCache<>(maxSize, TimeUnit.MILLISECONDS.toNanos(ttlMs), System::nanoTime);
+    }
+
+    @Override
+    public Film getFilmById(int id) {
+        Film cached = cache.get(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+        long loadEpoch;
+        synchronized (lock) {
+            loadEpoch = epoch;
+        }
+        long start = System.nanoTime();
+        Film loaded = filmRepository.getFilmById(id);
+        loadNanos.addAndGet(System.nanoTime() - start);
+        loads.incrementAndGet();
+        synchronized (lock) {
+            // Пока фильм загружался, могла пройти запись — такое значение в кэш не кладём
+            if (epoch == loadEpoch) {
+                cache.put(id, copy(loaded));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Загружает фильмы в кэш одним запросом — прогрев при старте.
+     */
+    public void preload(Collection<Integer> ids) {
+        long loadEpoch;
+        synchronized (lock) {
+            loadEpoch = epoch;
+        }
+        List<Film> films = filmRepository.getFilmsByIds(ids);
+        synchronized (lock) {
+            if (epoch == loadEpoch) {
+                films.forEach(film -> cache.put(film.getId(), copy(film)));
+            }
+        }
+    }
+
+    @Override
+    public Film createFilm(Film film) {
+        return filmRepository.createFilm(film);
+    }
+
+    @Override
+    public Film updateFilm(Film filmUpdated) {
+        Film film = filmRepository.updateFilm(filmUpdated);
+        evict(filmUpdated.getId());
+        return film;
+    }
+
+    @Override
+    public void deleteFilm(int id) {
+        filmRepository.deleteFilm(id);
+        evict(id);
+    }
+
+    /**
+     * Сбрасывает фильм после изменения его жанров или режиссёров.
+     */
+    public void evict(int filmId) {
+        invalidate(() -> cache.remove(filmId));
+    }
+
+    /**
+     * Сбрасывает все фильмы режиссёра после его переименования или удаления.
+     */
+    public void evictByDirector(int directorId) {
+        invalidate(() -> cache.removeIf((id, film) -> film.getDirectors() != null
+                && film.getDirectors().stream().anyMatch(d -> d.getId() == directorId)));
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmRepository.getFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Integer> ids) {
+        return filmRepository.getFilmsByIds(ids);
+    }
+
+    @Override
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        return filmRepository.getExistingIds(ids);
+    }
+
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        return filmRepository.getFilmsPage(afterId, limit);
+    }
+
+    @Override
+    public List<Film> getTopFilms(int count, Integer genreId, Integer year) {
+        return filmRepository.getTopFilms(count, genreId, year);
+    }
+
+    @Override
+    public List<Film> getFilmsByDirector(int directorId, SortedBy sortBy) {
+        return filmRepository.getFilmsByDirector(directorId, sortBy);
+    }
+
+    @Override
+    public List<Film> getCommonFilms(int userId, int friendId) {
+        return filmRepository.getCommonFilms(userId, friendId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.cache.films.requests", cache, SegmentedLruCache::hits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.films.requests", cache, SegmentedLruCache::misses)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.films.evictions", cache, SegmentedLruCache::evictions)
+                .register(registry);
+        Gauge.builder("filmorate.cache.films.hit.ratio", cache, c -> {
+                    long total = c.hits() + c.misses();
+                    return total == 0 ? 0 : (double) c.hits() / total;
+                })
+                .register(registry);
+        Gauge.builder("filmorate.cache.films.size", cache, SegmentedLruCache::size)
+                .register(registry);
+        FunctionTimer.builder("filmorate.cache.films.load", this,
+                        storage -> storage.loads.get(), storage -> storage.loadNanos.get(), TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+
+    // Внутри транзакции другие потоки ещё видят старые строки и могут вернуть их в кэш,
+    // поэтому после завершения транзакции (фиксации или отката) сброс повторяется
+    private void invalidate(Runnable removal) {
+        synchronized (lock) {
+            epoch++;
+            removal.run();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (lock) {
+                        epoch++;
+                        removal.run();
+                    }
+                }
+            });
+        }
+    }
+
+    // Кэш отдаёт копии, чтобы изменение возвращённого фильма вызывающим кодом не портило кэш
+    private static Film copy(Film film) {
+        return film.toBuilder()
+                .mpa(film.getMpa() == null ? null : new Rating(film.getMpa().getId(), film.getMpa().getName()))
+                .genres(film.getGenres() == null ? null : film.getGenres().stream()
+                        .map(genre -> genre.toBuilder().build())
+                        .collect(Collectors.toCollection(LinkedHashSet<Genre>::new)))
+                .directors(film.getDirectors() == null ? null : film.getDirectors().stream()
+                        .map(director -> director.toBuilder().build())
+                        .collect(Collectors.toCollection(LinkedHashSet<Director>::new)))
+                .build();
+    }
+}
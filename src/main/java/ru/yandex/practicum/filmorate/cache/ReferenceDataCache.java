@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.RatingStorage;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш справочников: жанры, рейтинги МПА и режиссёры.
+ * Данные хранятся неизменяемым снимком с номером версии; изменения режиссёров
+ * собирают новый снимок и подменяют его целиком.
+ * Если значения нет в снимке, он перечитывается из БД (например, после записи в обход сервиса),
+ * но не чаще одного раза за {@code filmorate.cache.reference.miss-reload-interval-ms}:
+ * поток запросов к несуществующим id не превращается в поток полных перечитываний справочников.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache implements MeterBinder {
+    private final GenreStorage genreStorage;
+    private final RatingStorage ratingStorage;
+    private final DirectorStorage directorStorage;
+    private final long missReloadIntervalNanos;
+    private final LongSupplier ticker;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private volatile long lastReload;
+
+    public ReferenceDataCache(GenreStorage genreStorage,
+                              RatingStorage ratingStorage,
+                              DirectorStorage directorStorage,
+                              @Value("${filmorate.cache.reference.miss-reload-interval-ms:1000}") long missReloadIntervalMs) {
+        this(genreStorage, ratingStorage, directorStorage, missReloadIntervalMs, System::nanoTime);
+    }
+
+    ReferenceDataCache(GenreStorage genreStorage, RatingStorage ratingStorage, DirectorStorage directorStorage,
+                       long missReloadIntervalMs, LongSupplier ticker) {
+        this.genreStorage = genreStorage;
+        this.ratingStorage = ratingStorage;
+        this.directorStorage = directorStorage;
+        this.missReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missReloadIntervalMs);
+        this.ticker = ticker;
+    }
+
+    public List<Genre> getGenres() {
+        return current().genres().values().stream()
+                .map(genre -> genre.toBuilder().build())
+                .toList();
+    }
+
+    public Genre getGenreById(int id) {
+        return lookup(Snapshot::genres, id)
+                .map(genre -> genre.toBuilder().build())
+                .orElseThrow(() -> new NotFoundException("Жанр с id " + id + " не найден"));
+    }
+
+    public List<Rating> getRatings() {
+        return current().ratings().values().stream()
+                .map(rating -> new Rating(rating.getId(), rating.getName()))
+                .toList();
+    }
+
+    public Rating getRatingById(int id) {
+        return lookup(Snapshot::ratings, id)
+                .map(rating -> new Rating(rating.getId(), rating.getName()))
+                .orElseThrow(() -> new NotFoundException("Рейтинг МПА с ID " + id + " не найден"));
+    }
+
+    public Set<Director> getDirectors() {
+        return current().directors().values().stream()
+                .map(director -> director.toBuilder().build())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    public Director getDirectorById(int id) {
+        return lookup(Snapshot::directors, id)
+                .map(director -> director.toBuilder().build())
+                .orElseThrow(() -> new NotFoundException("Режиссер с id " + id + " не найден"));
+    }
+
+    /**
+     * Перечитывает режиссёров после изменения и атомарно публикует новую версию снимка.
+     */
+    public synchronized void refreshDirectors() {
+        Snapshot previous = current();
+        snapshot = new Snapshot(previous.version() + 1, previous.genres(), previous.ratings(),
+                byId(directorStorage.getDirectors(), Director::getId));
+        log.debug("Кэш справочников обновлён до версии {}", snapshot.version());
+    }
+
+    public synchronized void reload() {
+        long version = snapshot == null ? 1 : snapshot.version() + 1;
+        snapshot = new Snapshot(version,
+                byId(genreStorage.getGenres(), Genre::getId),
+                byId(ratingStorage.getAllRatings(), Rating::getId),
+                byId(directorStorage.getDirectors(), Director::getId));
+        lastReload = ticker.getAsLong();
+        log.debug("Кэш справочников загружен, версия {}", version);
+    }
+
+    public long getVersion() {
+        return current().version();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.cache.reference.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.reference.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("filmorate.cache.reference.version", this, cache -> cache.snapshot == null ? 0 : cache.snapshot.version())
+                .register(registry);
+    }
+
+    private <T> Optional<T> lookup(Function<Snapshot, Map<Integer, T>> section, int id) {
+        Snapshot before = current();
+        T value = section.apply(before).get(id);
+        if (value != null) {
+            hits.incrementAndGet();
+            return Optional.of(value);
+        }
+        misses.incrementAndGet();
+        if (reloadedRecently()) {
+            return Optional.ofNullable(section.apply(snapshot).get(id));
+        }
+        synchronized (this) {
+            // Пока ждали блокировку, снимок мог обновить другой поток
+            if (snapshot == before && !reloadedRecently()) {
+                reload();
+            }
+            return Optional.ofNullable(section.apply(snapshot).get(id));
+        }
+    }
+
+    private boolean reloadedRecently() {
+        return ticker.getAsLong() - lastReload < missReloadIntervalNanos;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static <T> Map<Integer, T> byId(Collection<T> values, Function<T, Integer> id) {
+        return Collections.unmodifiableMap(values.stream()
+                .sorted(Comparator.comparing(id))
+                .collect(Collectors.toMap(id, value -> value, (a, b) -> a, LinkedHashMap::new)));
+    }
+
+    private record Snapshot(long version, Map<Integer, Genre> genres, Map<Integer, Rating> ratings,
+                            Map<Integer, Director> directors) {
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный по размеру кэш с вытеснением по схеме Segmented LRU.
+ * Новые записи попадают в испытательный сегмент; при повторном обращении запись
+ * переходит в защищённый сегмент, поэтому однократные чтения не вытесняют популярные значения.
+ * Записи старше TTL считаются отсутствующими.
+ */
+class SegmentedLruCache<K, V> {
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final int probationCapacity;
+    private final int protectedCapacity;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    SegmentedLruCache(int maxSize, long ttlNanos, LongSupplier ticker) {
+        if (maxSize < 2) {
+            throw new IllegalArgumentException("Размер кэша должен быть не меньше 2");
+        }
+        this.protectedCapacity = (int) Math.max(1, maxSize * PROTECTED_SHARE);
+        this.probationCapacity = maxSize - protectedCapacity;
+        this.ttlNanos = ttlNanos;
+        this.ticker = ticker;
+    }
+
+    synchronized V get(K key) {
+        Node<V> node = protectedSegment.get(key);
+        if (node == null) {
+            node = probation.get(key);
+            if (node != null && !isExpired(node)) {
+                promote(key, node);
+            }
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(node)) {
+            remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return node.value();
+    }
+
+    synchronized void put(K key, V value) {
+        Node<V> node = new Node<>(value, ticker.getAsLong());
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, node);
+            return;
+        }
+        probation.put(key, node);
+        trim(probation, probationCapacity);
+    }
+
+    synchronized void remove(K key) {
+        probation.remove(key);
+        protectedSegment.remove(key);
+    }
+
+    synchronized void removeIf(BiPredicate<K, V> predicate) {
+        probation.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value()));
+        protectedSegment.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value()));
+    }
+
+    synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    // Переполненный защищённый сегмент понижает самую старую запись обратно в испытательный
+    private void promote(K key, Node<V> node) {
+        probation.remove(key);
+        protectedSegment.put(key, node);
+        Iterator<Map.Entry<K, Node<V>>> it = protectedSegment.entrySet().iterator();
+        while (protectedSegment.size() > protectedCapacity && it.hasNext()) {
+            Map.Entry<K, Node<V>> eldest = it.next();
+            it.remove();
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+        trim(probation, probationCapacity);
+    }
+
+    private void trim(LinkedHashMap<K, Node<V>> segment, int capacity) {
+        Iterator<Map.Entry<K, Node<V>>> it = segment.entrySet().iterator();
+        while (segment.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private boolean isExpired(Node<V> node) {
+        return ticker.getAsLong() - node.loadedAt() > ttlNanos;
+    }
+
+    private record Node<V>(V value, long loadedAt) {
+    }
+}
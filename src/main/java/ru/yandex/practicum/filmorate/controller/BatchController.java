@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+import ru.yandex.practicum.filmorate.service.BatchService;
+
+import java.util.List;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class BatchController {
+    private final BatchService batchService;
+
+    /*POST /likes:batch, тело — [{"filmId":1,"userId":2,"operation":"ADD"}, ...]*/
+    @PostMapping("/likes:batch")
+    public List<BatchItemResult> applyLikes(@RequestBody List<LikeBatchItem> items) {
+        log.info("Пакет лайков из {} элементов", items.size());
+        return batchService.applyLikes(items);
+    }
+
+    /*POST /friends:batch, тело — [{"userId":1,"friendId":2,"operation":"REMOVE"}, ...]*/
+    @PostMapping("/friends:batch")
+    public List<BatchItemResult> applyFriendships(@RequestBody List<FriendBatchItem> items) {
+        log.info("Пакет дружбы из {} элементов", items.size());
+        return batchService.applyFriendships(items);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.bulk.ExportTable;
+import ru.yandex.practicum.filmorate.bulk.SnapshotExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@RestController
+@RequestMapping("/export")
+@Slf4j
+@RequiredArgsConstructor
+public class ExportController {
+    private final SnapshotExporter snapshotExporter;
+
+    /*GET /export?tables=films,users — согласованный снимок таблиц ZIP-архивом, по файлу NDJSON на таблицу*/
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(@RequestParam(required = false) List<String> tables) {
+        List<ExportTable> selected = tables == null
+                ? Arrays.asList(ExportTable.values())
+                : tables.stream().map(ExportTable::of).toList();
+        log.info("Выгрузка снимка таблиц {}", selected);
+        StreamingResponseBody body = out -> {
+            try (ZipOutputStream zip = new ZipOutputStream(out)) {
+                snapshotExporter.exportSnapshot(selected, new SnapshotExporter.SnapshotSink() {
+                    @Override
+                    public OutputStream open(ExportTable table) throws IOException {
+                        zip.putNextEntry(new ZipEntry(table.name().toLowerCase() + ".ndjson"));
+                        return zip;
+                    }
+
+                    @Override
+                    public void close(ExportTable table, OutputStream entry) throws IOException {
+                        zip.closeEntry();
+                    }
+                });
+            }
+        };
+        return attachment("snapshot.zip", MediaType.parseMediaType("application/zip"), body);
+    }
+
+    /*GET /export/{table}?after={key} — таблица в NDJSON со сжатием gzip, после строки с ключом after*/
+    @GetMapping("/{table}")
+    public ResponseEntity<StreamingResponseBody> exportTable(@PathVariable String table,
+                                                             @RequestParam(required = false) String after) {
+        ExportTable exportTable = ExportTable.of(table);
+        int[] afterKey = after == null ? null : exportTable.parseKey(after);
+        log.info("Выгрузка таблицы {} после ключа {}", exportTable, after);
+        StreamingResponseBody body = out -> {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16)) {
+                snapshotExporter.exportTable(exportTable, afterKey, gzip);
+            }
+        };
+        return attachment(exportTable.fileName(), MediaType.parseMediaType("application/gzip"), body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String fileName, MediaType type,
+                                                                    StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -4,7 +4,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
@@ -17,6 +19,7 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class FilmController {
     private final FilmService filmService;
+    private final KeysetStreamWriter keysetStreamWriter;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -29,9 +32,21 @@ public class FilmController {
         return filmService.updateFilm(film);
     }
 
+    /*GET /films?limit={limit}&after={lastId}*/
     @GetMapping
-    public Collection<Film> getFilms() {
-        return filmService.getFilms();
+    public Collection<Film> getFilms(@RequestParam(required = false) Integer limit,
+                                     @RequestParam(defaultValue = "0") int after) {
+        if (limit == null) {
+            return filmService.getFilms();
+        }
+        return filmService.getFilmsPage(after, limit);
+    }
+
+    /*GET /films?stream=true*/
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamFilms() {
+        log.info("Потоковая выгрузка каталога фильмов");
+        return keysetStreamWriter.stream(filmService::getFilmsPage, Film::getId);
     }
 
     @GetMapping("/{id}")
@@ -82,9 +97,17 @@ public class FilmController {
         return filmService.getTopFilms(count, genreId, year);
     }
 
+    /*GET /films/{id}/similar?count={limit}*/
+    @GetMapping("/{id}/similar")
+    public Collection<Film> getSimilarFilms(@PathVariable int id, @RequestParam(defaultValue = "10") int count) {
+        return filmService.getSimilarFilms(id, count);
+    }
+
     @GetMapping("/search")
-    public Collection<Film> searchFilms(@RequestParam String query, @RequestParam String by) {
+    public Collection<Film> searchFilms(@RequestParam String query,
+                                        @RequestParam String by,
+                                        @RequestParam(defaultValue = "100") int limit) {
         log.info("Поиск фильмов по запросу '{}' с критерием '{}'", query, by);
-        return filmService.searchFilms(query, by);
+        return filmService.searchFilms(query, by, limit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.bulk.BulkImporter;
+import ru.yandex.practicum.filmorate.bulk.ImportFormat;
+import ru.yandex.practicum.filmorate.bulk.ImportKind;
+import ru.yandex.practicum.filmorate.bulk.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/import")
+@Slf4j
+@RequiredArgsConstructor
+public class ImportController {
+    private final BulkImporter bulkImporter;
+
+    /*POST /import/{users|films|likes}, тело — NDJSON (application/x-ndjson) или CSV (text/csv)*/
+    @PostMapping(value = "/{kind}", consumes = {ImportFormat.NDJSON_MEDIA_TYPE, ImportFormat.CSV_MEDIA_TYPE})
+    public ImportReport importData(@PathVariable String kind,
+                                   @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                   InputStream body) throws IOException {
+        ImportKind importKind = ImportKind.of(kind);
+        log.info("Массовый импорт: {}", importKind);
+        return bulkImporter.importAll(List.of(new BulkImporter.Source(importKind,
+                ImportFormat.fromContentType(contentType), body))).getFirst();
+    }
+}
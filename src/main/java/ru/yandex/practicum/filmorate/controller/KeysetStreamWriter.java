@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.service.Paging;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Отдаёт всю таблицу JSON-массивом, вычитывая её страницами по ключу.
+ * В памяти одновременно находится не больше одной страницы, каждая страница сразу сбрасывается клиенту.
+ * Страницы грузятся теми же методами, что и постраничная выдача, поэтому размер страницы проверяется
+ * при старте по тем же границам — иначе ошибка проявилась бы только посреди уже начатого ответа.
+ */
+@Component
+public class KeysetStreamWriter {
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public KeysetStreamWriter(ObjectMapper objectMapper,
+                              @Value("${filmorate.stream.page-size:500}") int pageSize) {
+        if (pageSize < 1 || pageSize > Paging.MAX_LIMIT) {
+            throw new IllegalArgumentException("filmorate.stream.page-size должен быть от 1 до " + Paging.MAX_LIMIT);
+        }
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(BiFunction<Integer, Integer, List<T>> pageLoader,
+                                                            ToIntFunction<T> idOf) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                int after = 0;
+                List<T> page;
+                do {
+                    page = pageLoader.apply(after, pageSize);
+                    for (T item : page) {
+                        objectMapper.writeValue(generator, item);
+                    }
+                    generator.flush();
+                    if (!page.isEmpty()) {
+                        after = idOf.applyAsInt(page.get(page.size() - 1));
+                    }
+                } while (page.size() == pageSize);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
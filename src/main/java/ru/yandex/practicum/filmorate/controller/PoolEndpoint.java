@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /actuator/pool — состояние пула соединений: занятые и свободные соединения, очередь ожидающих
+ * потоков и время ожидания соединения (по таймеру hikaricp.connections.acquire).
+ */
+@Component
+@Endpoint(id = "pool")
+@RequiredArgsConstructor
+public class PoolEndpoint {
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, Object> pool() throws SQLException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            result.put("pool", "unsupported");
+            return result;
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        result.put("pool", hikari.getPoolName());
+        result.put("maximumPoolSize", hikari.getMaximumPoolSize());
+        result.put("minimumIdle", hikari.getMinimumIdle());
+        result.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool != null) {
+            result.put("active", pool.getActiveConnections());
+            result.put("idle", pool.getIdleConnections());
+            result.put("total", pool.getTotalConnections());
+            result.put("pending", pool.getThreadsAwaitingConnection());
+        }
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", hikari.getPoolName()).timer();
+        if (acquire != null) {
+            result.put("acquireCount", acquire.count());
+            result.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            result.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", hikari.getPoolName()).timer();
+        if (usage != null) {
+            result.put("usageMeanMs", usage.mean(TimeUnit.MILLISECONDS));
+            result.put("usageMaxMs", usage.max(TimeUnit.MILLISECONDS));
+        }
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", hikari.getPoolName()).counter();
+        if (timeouts != null) {
+            result.put("timeouts", (long) timeouts.count());
+        }
+        return result;
+    }
+}
@@ -48,12 +48,14 @@ public class ReviewController {
         return reviewService.getReviewById(reviewId);
     }
 
-    // GET /reviews?filmId={filmId}&count={count}
+    // GET /reviews?filmId={filmId}&count={count}&afterUseful={useful}&afterId={lastReviewId}
     @GetMapping
     public List<Review> getReviews(@RequestParam(required = false) Integer filmId,
-                                   @RequestParam(defaultValue = "10") int count) {
+                                   @RequestParam(defaultValue = "10") int count,
+                                   @RequestParam(required = false) Integer afterUseful,
+                                   @RequestParam(required = false) Integer afterId) {
         log.info("Запрос на получение отзывов. filmId = {}, count = {}", filmId, count);
-        return reviewService.getReviews(filmId, count);
+        return reviewService.getReviews(filmId, count, afterUseful, afterId);
     }
 
     // PUT /reviews/{id}/like/{userId}
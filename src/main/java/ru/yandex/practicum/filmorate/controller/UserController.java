@@ -4,7 +4,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
@@ -19,8 +21,11 @@ import java.util.List;
 @Slf4j
 @RequiredArgsConstructor
 public class UserController {
+    private static final int FEED_PAGE_SIZE = 100;
+
     private final UserService userService;
     private final FilmService filmService;
+    private final KeysetStreamWriter keysetStreamWriter;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -38,9 +43,21 @@ public class UserController {
         userService.addFriend(id, friendId);
     }
 
+    /*GET /users?limit={limit}&after={lastId}*/
     @GetMapping
-    public Collection<User> getUsers() {
-        return userService.getUsers();
+    public Collection<User> getUsers(@RequestParam(required = false) Integer limit,
+                                     @RequestParam(defaultValue = "0") int after) {
+        if (limit == null) {
+            return userService.getUsers();
+        }
+        return userService.getUsersPage(after, limit);
+    }
+
+    /*GET /users?stream=true*/
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        log.info("Потоковая выгрузка пользователей");
+        return keysetStreamWriter.stream(userService::getUsersPage, User::getId);
     }
 
     @GetMapping("/{id}")
@@ -76,9 +93,29 @@ public class UserController {
         return filmService.getRecommendations(userId);
     }
 
-    /*GET /users/{id}/feed*/
+    /*GET /users/{id}/suggestions?count={count}, count от 1 до 20*/
+    @GetMapping("/{id}/suggestions")
+    public List<User> getSuggestions(@PathVariable int id, @RequestParam(defaultValue = "10") int count) {
+        log.info("Получение возможных знакомых для пользователя с id={}", id);
+        return userService.getSuggestions(id, count);
+    }
+
+    /*GET /users/{id}/feed?since={lastEventId}&limit={limit}*/
     @GetMapping("/{id}/feed")
-    public List<Event> getFeedUserById(@PathVariable int id) {
-        return userService.getFeedUserById(id);
+    public List<Event> getFeedUserById(@PathVariable int id,
+                                       @RequestParam(required = false) Integer since,
+                                       @RequestParam(required = false) Integer limit) {
+        if (since == null && limit == null) {
+            return userService.getFeedUserById(id);
+        }
+        return userService.getFeedPage(id, since, limit == null ? FEED_PAGE_SIZE : limit);
+    }
+
+    /*GET /users/{id}/feed/friends?before={eventId}&limit={limit}*/
+    @GetMapping("/{id}/feed/friends")
+    public List<Event> getFriendsFeed(@PathVariable int id,
+                                      @RequestParam(required = false) Integer before,
+                                      @RequestParam(defaultValue = "" + FEED_PAGE_SIZE) int limit) {
+        return userService.getFriendsFeed(id, before, limit);
     }
 }
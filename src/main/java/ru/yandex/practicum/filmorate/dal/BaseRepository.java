@@ -1,9 +1,11 @@
 package ru.yandex.practicum.filmorate.dal;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -14,9 +16,21 @@ import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class BaseRepository<T> {
+    static final int DEFAULT_IN_CHUNK_SIZE = 512;
+
     protected final JdbcTemplate jdbc;
     protected final RowMapper<T> mapper;
 
+    private int inChunkSize = DEFAULT_IN_CHUNK_SIZE;
+
+    @Value("${filmorate.jdbc.in-chunk-size:" + DEFAULT_IN_CHUNK_SIZE + "}")
+    void setInChunkSize(int inChunkSize) {
+        if (inChunkSize < 1) {
+            throw new IllegalArgumentException("filmorate.jdbc.in-chunk-size должен быть положительным");
+        }
+        this.inChunkSize = inChunkSize;
+    }
+
     protected Optional<T> findOne(String query, Object... params) {
         T optional;
         try {
@@ -73,4 +87,86 @@ public class BaseRepository<T> {
             throw new NotFoundException("Не удалось обновить данные");
         }
     }
+
+    /**
+     * Какие из id есть в таблице: queryTemplate выбирает одну колонку id и содержит %s на месте IN-списка.
+     */
+    protected Set<Integer> existingIds(String queryTemplate, Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        queryInChunks(queryTemplate, ids, rs -> existing.add(rs.getInt(1)));
+        return existing;
+    }
+
+    /**
+     * Вставка (insert[i] = true) и удаление пар значений пакетами в исходном порядке: подряд идущие операции
+     * одного вида уходят одним пакетом, поэтому добавление и удаление одной пары не переставляются.
+     * Оба запроса принимают пару двумя параметрами. Возвращает, изменила ли каждая операция строку.
+     */
+    protected boolean[] batchPairs(List<int[]> pairs, boolean[] insert, String insertSql, String deleteSql) {
+        boolean[] changed = new boolean[pairs.size()];
+        int from = 0;
+        while (from < pairs.size()) {
+            int to = from + 1;
+            while (to < pairs.size() && insert[to] == insert[from]) {
+                to++;
+            }
+            List<int[]> run = pairs.subList(from, to);
+            int[][] counts = jdbc.batchUpdate(insert[from] ? insertSql : deleteSql, run, run.size(), (ps, pair) -> {
+                ps.setInt(1, pair[0]);
+                ps.setInt(2, pair[1]);
+            });
+            for (int i = 0; i < run.size(); i++) {
+                changed[from + i] = counts[0][i] > 0;
+            }
+            from = to;
+        }
+        return changed;
+    }
+
+    /**
+     * Делит набор id на части не больше filmorate.jdbc.in-chunk-size, чтобы длина запроса и число
+     * его параметров были ограничены и при выборке по всему каталогу. Части идут по возрастанию id,
+     * поэтому упорядоченные по id результаты частей остаётся склеить.
+     */
+    protected List<List<Integer>> inChunks(Collection<Integer> ids) {
+        List<Integer> sorted = ids.stream().sorted().toList();
+        List<List<Integer>> chunks = new ArrayList<>(sorted.size() / inChunkSize + 1);
+        for (int from = 0; from < sorted.size(); from += inChunkSize) {
+            chunks.add(sorted.subList(from, Math.min(sorted.size(), from + inChunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Выборка по набору id частями: queryTemplate содержит %s на месте плейсхолдеров IN-списка,
+     * строки всех частей передаются в handler.
+     */
+    protected void queryInChunks(String queryTemplate, Collection<Integer> ids, RowCallbackHandler handler) {
+        for (List<Integer> chunk : inChunks(ids)) {
+            jdbc.query(String.format(queryTemplate, inPlaceholders(chunk)), handler, inParams(chunk));
+        }
+    }
+
+    /**
+     * Плейсхолдеры IN-списка для values.size() значений. Их число округляется вверх до степени двойки,
+     * поэтому запросы с разным числом id сводятся к нескольким текстам и попадают в кэш
+     * подготовленных выражений. Параметры к ним даёт {@link #inParams}.
+     */
+    protected static String inPlaceholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(inListSize(values.size()), "?"));
+    }
+
+    /**
+     * Параметры IN-списка, дополненные повтором последнего значения до числа плейсхолдеров —
+     * повтор в IN не меняет результат.
+     */
+    protected static Object[] inParams(Collection<?> values) {
+        Object[] params = Arrays.copyOf(values.toArray(), inListSize(values.size()));
+        Arrays.fill(params, values.size(), params.length, params[values.size() - 1]);
+        return params;
+    }
+
+    static int inListSize(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
 }
\ No newline at end of file
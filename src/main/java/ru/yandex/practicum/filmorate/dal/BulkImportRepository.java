@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.BulkImportStorage;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class BulkImportRepository extends BaseRepository<User> implements BulkImportStorage {
+
+    public BulkImportRepository(JdbcTemplate jdbc, RowMapper<User> mapper) {
+        super(jdbc, mapper);
+    }
+
+    @Override
+    public BitSet getUserIds(int from, int to) {
+        return ids("SELECT USER_ID FROM USERS WHERE USER_ID >= ? AND USER_ID < ?", from, to);
+    }
+
+    @Override
+    public BitSet getFilmIds(int from, int to) {
+        return ids("SELECT FILM_ID FROM FILMS WHERE FILM_ID >= ? AND FILM_ID < ?", from, to);
+    }
+
+    @Override
+    public Set<String> getUserLogins() {
+        Set<String> logins = new HashSet<>();
+        jdbc.query("SELECT LOGIN FROM USERS", (RowCallbackHandler) rs -> logins.add(rs.getString(1)));
+        return logins;
+    }
+
+    @Override
+    public void insertUsers(List<User> users) {
+        jdbc.batchUpdate("INSERT INTO USERS (USER_ID, EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?, ?)",
+                users, users.size(), (ps, user) -> {
+                    ps.setInt(1, user.getId());
+                    ps.setString(2, user.getEmail());
+                    ps.setString(3, user.getLogin());
+                    ps.setString(4, user.getName());
+                    ps.setDate(5, Date.valueOf(user.getBirthday()));
+                });
+    }
+
+    @Override
+    public void insertFilms(List<Film> films) {
+        jdbc.batchUpdate("""
+                        INSERT INTO FILMS (FILM_ID, FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        """,
+                films, films.size(), (ps, film) -> {
+                    ps.setInt(1, film.getId());
+                    ps.setString(2, film.getName());
+                    ps.setString(3, film.getDescription());
+                    ps.setDate(4, Date.valueOf(film.getReleaseDate()));
+                    ps.setInt(5, film.getDuration());
+                    ps.setInt(6, film.getMpa().getId());
+                });
+        List<int[]> genres = new ArrayList<>();
+        List<int[]> directors = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() != null) {
+                film.getGenres().stream().map(Genre::getId).distinct()
+                        .forEach(genreId -> genres.add(new int[]{film.getId(), genreId}));
+            }
+            if (film.getDirectors() != null) {
+                film.getDirectors().stream().map(Director::getId).distinct()
+                        .forEach(directorId -> directors.add(new int[]{film.getId(), directorId}));
+            }
+        }
+        insertPairs("INSERT INTO GENRES_SAVE (FILM_ID, GENRE_ID) VALUES (?, ?)", genres);
+        insertPairs("INSERT INTO DIRECTORS_SAVE (FILM_ID, DIRECTOR_ID) VALUES (?, ?)", directors);
+    }
+
+    @Override
+    public void insertLikes(List<int[]> likes) {
+        insertPairs("MERGE INTO LIKE_LIST (USER_ID, FILM_ID) KEY (FILM_ID, USER_ID) VALUES (?, ?)", likes);
+    }
+
+    // Значение RESTART задаётся только литералом, а не параметром
+    @Override
+    public void restartUserIds(int next) {
+        jdbc.execute("ALTER TABLE USERS ALTER COLUMN USER_ID RESTART WITH " + next);
+    }
+
+    @Override
+    public void restartFilmIds(int next) {
+        jdbc.execute("ALTER TABLE FILMS ALTER COLUMN FILM_ID RESTART WITH " + next);
+    }
+
+    private BitSet ids(String query, int from, int to) {
+        BitSet ids = new BitSet();
+        jdbc.query(query, (RowCallbackHandler) rs -> ids.set(rs.getInt(1)), from, to);
+        return ids;
+    }
+
+    private void insertPairs(String sql, List<int[]> pairs) {
+        if (pairs.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(sql, pairs, pairs.size(), (ps, pair) -> {
+            ps.setInt(1, pair[0]);
+            ps.setInt(2, pair[1]);
+        });
+    }
+}
@@ -9,7 +9,6 @@ import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -57,17 +56,19 @@ public class DirectorRepository extends BaseRepository<Director> implements Dire
 
     @Override
     public void createDirectorsForFilmById(int filmId, List<Director> directors) {
+        // Пара (FILM_ID, DIRECTOR_ID) уникальна
+        int[] directorIds = directors.stream().mapToInt(Director::getId).distinct().toArray();
         batchUpdateBase("INSERT INTO DIRECTORS_SAVE (FILM_ID, DIRECTOR_ID) VALUES (?, ?)",
                 new BatchPreparedStatementSetter() {
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
                         ps.setInt(1, filmId);
-                        ps.setInt(2, directors.get(i).getId());
+                        ps.setInt(2, directorIds[i]);
                     }
 
                     @Override
                     public int getBatchSize() {
-                        return directors.size();
+                        return directorIds.length;
                     }
                 });
     }
@@ -96,25 +97,19 @@ public class DirectorRepository extends BaseRepository<Director> implements Dire
         if (filmIds.isEmpty()) {
             return Collections.emptyMap();
         }
-        String placeholders = String.join(",", Collections.nCopies(filmIds.size(), "?"));
-        String sql = String.format(
-                "SELECT ds.FILM_ID, d.DIRECTOR_ID, d.DIRECTOR_NAME " +
-                "FROM DIRECTORS_SAVE ds " +
-                "JOIN DIRECTORS d ON ds.DIRECTOR_ID = d.DIRECTOR_ID " +
-                "WHERE ds.FILM_ID IN (%s)",
-                placeholders);
-        Object[] params = filmIds.toArray();
         Map<Integer, Set<Director>> result = new HashMap<>();
-        jdbc.query(sql, params, (ResultSet rs) -> {
-            while (rs.next()) {
-                int filmId = rs.getInt("FILM_ID");
-                int directorId = rs.getInt("DIRECTOR_ID");
-                String directorName = rs.getString("DIRECTOR_NAME");
-                Director director = new Director(directorId, directorName);
-                result.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(director);
-            }
-            return result;
-        });
+        queryInChunks("SELECT ds.FILM_ID, d.DIRECTOR_ID, d.DIRECTOR_NAME " +
+                        "FROM DIRECTORS_SAVE ds " +
+                        "JOIN DIRECTORS d ON ds.DIRECTOR_ID = d.DIRECTOR_ID " +
+                        "WHERE ds.FILM_ID IN (%s)",
+                filmIds,
+                rs -> {
+                    int filmId = rs.getInt("FILM_ID");
+                    int directorId = rs.getInt("DIRECTOR_ID");
+                    String directorName = rs.getString("DIRECTOR_NAME");
+                    Director director = new Director(directorId, directorName);
+                    result.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(director);
+                });
         return result;
     }
 }
\ No newline at end of file
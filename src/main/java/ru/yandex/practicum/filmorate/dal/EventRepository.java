@@ -1,35 +1,166 @@
 package ru.yandex.practicum.filmorate.dal;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.dal.status.EventOperation;
 import ru.yandex.practicum.filmorate.dal.status.EventType;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.feed.SavedEventsListener;
 import ru.yandex.practicum.filmorate.mapper.EventRowMapper;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * События ленты. Чтение идёт по индексу (USER_ID, EVENT_ID), свежие страницы —
+ * из {@link RecentEventsBuffer}. Записанные события после фиксации транзакции передаются
+ * всем {@link SavedEventsListener}, в том числе буферу.
+ */
 @Repository
 public class EventRepository extends BaseRepository<Event> implements EventStorage {
+    private static final String INSERT_QUERY = """
+            INSERT INTO EVENTS(EVENT_TIMESTAMP, USER_ID, EVENT_TYPE, OPERATION, ENTITY_ID)
+            VALUES (?, ?, ?, ?, ?)
+            """;
 
-    public EventRepository(JdbcTemplate jdbc, EventRowMapper eventRowMapper) {
+    private final RecentEventsBuffer recentEvents;
+    // Слушатели берутся при каждой записи: часть из них сама читает события через EventStorage
+    private final ObjectProvider<SavedEventsListener> listeners;
+
+    public EventRepository(JdbcTemplate jdbc, EventRowMapper eventRowMapper, RecentEventsBuffer recentEvents,
+                           ObjectProvider<SavedEventsListener> listeners) {
         super(jdbc, eventRowMapper);
+        this.recentEvents = recentEvents;
+        this.listeners = listeners;
     }
 
     @Override
     public List<Event> getFeedUserById(int id) {
-        return findMany("SELECT * FROM EVENTS WHERE USER_ID = ?", id);
+        return recentEvents.latest(id, Integer.MAX_VALUE, limit -> findLatest(id, limit))
+                .orElseGet(() -> findMany("SELECT * FROM EVENTS WHERE USER_ID = ? ORDER BY EVENT_ID", id));
+    }
+
+    @Override
+    public List<Event> getLatestEvents(int userId, int limit) {
+        return recentEvents.latest(userId, limit, count -> findLatest(userId, count))
+                .orElseGet(() -> findLatest(userId, limit).reversed());
+    }
+
+    @Override
+    public List<Event> getEventsSince(int userId, int sinceId, int limit) {
+        return recentEvents.since(userId, sinceId, limit, count -> findLatest(userId, count))
+                .orElseGet(() -> findMany("""
+                        SELECT * FROM EVENTS
+                        WHERE USER_ID = ? AND EVENT_ID > ?
+                        ORDER BY EVENT_ID
+                        LIMIT ?
+                        """, userId, sinceId, limit));
+    }
+
+    @Override
+    public List<Event> getEventsBefore(int userId, int beforeId, int limit) {
+        return recentEvents.before(userId, beforeId, limit, count -> findLatest(userId, count))
+                .orElseGet(() -> findMany("""
+                        SELECT * FROM EVENTS
+                        WHERE USER_ID = ? AND EVENT_ID < ?
+                        ORDER BY EVENT_ID DESC
+                        LIMIT ?
+                        """, userId, beforeId, limit).reversed());
+    }
+
+    @Override
+    public Map<Integer, Integer> getLastEventIds() {
+        Map<Integer, Integer> lastIds = new HashMap<>();
+        jdbc.query("SELECT USER_ID, MAX(EVENT_ID) AS LAST_ID FROM EVENTS GROUP BY USER_ID",
+                (RowCallbackHandler) rs -> lastIds.put(rs.getInt("USER_ID"), rs.getInt("LAST_ID")));
+        return lastIds;
     }
 
     @Override
     public void addEvent(int userId, EventType eventType, EventOperation operation, int entityId) {
-        update("INSERT INTO EVENTS(USER_ID, EVENT_TYPE, OPERATION, ENTITY_ID) VALUES (?, ?, ?, ?)",
-                userId, eventType.toString(), operation.toString(), entityId);
+        addEvents(List.of(Event.builder()
+                .timestamp(System.currentTimeMillis())
+                .userId(userId)
+                .eventType(eventType.toString())
+                .operation(operation.toString())
+                .entityId(entityId)
+                .build()));
+    }
+
+    // Время события задаётся явно: при пакетной записи оно не совпадает с моментом вставки.
+    // Ключи сопоставляются событиям по позиции; если драйвер вернул их не для каждой строки, сопоставить
+    // нельзя — запись прерывается до оповещения слушателей, чтобы буферы не получили события с чужими id
+    @Override
+    public void addEvents(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(con -> con.prepareStatement(INSERT_QUERY, new String[]{"EVENT_ID"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Event event = events.get(i);
+                        ps.setTimestamp(1, new Timestamp(event.getTimestamp()));
+                        ps.setInt(2, event.getUserId());
+                        ps.setString(3, event.getEventType());
+                        ps.setString(4, event.getOperation());
+                        ps.setInt(5, event.getEntityId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != events.size()) {
+            throw new IllegalStateException("Записано событий: " + events.size() + ", получено ключей: " + keys.size());
+        }
+        List<Event> saved = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            saved.add(events.get(i).toBuilder().eventId(id.intValue()).build());
+        }
+        afterCommit(() -> listeners.orderedStream().forEach(listener -> listener.onEventsSaved(saved)));
     }
 
     @Override
     public void deleteEventsByUserId(int userId) {
         delete("DELETE FROM EVENTS WHERE USER_ID = ?", userId);
+        Runnable notify = () -> listeners.orderedStream().forEach(listener -> listener.onUserEventsDeleted(userId));
+        notify.run();
+        afterCommit(notify);
+    }
+
+    private List<Event> findLatest(int userId, int limit) {
+        return findMany("SELECT * FROM EVENTS WHERE USER_ID = ? ORDER BY EVENT_ID DESC LIMIT ?", userId, limit);
+    }
+
+    // Откатившиеся события в буфер попасть не должны
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,17 +4,42 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.mapper.FilmResultSetExtractor;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.enums.SortedBy;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public class FilmRepository extends BaseRepository<Film> implements FilmStorage {
-
-    public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper) {
+    // Фильмы вместе с рейтингом, жанрами и режиссёрами за один запрос.
+    // Подзапрос отбирает строки FILMS (с фильтрами и LIMIT), внешний запрос присоединяет атрибуты.
+    private static final String HYDRATE_QUERY = """
+            SELECT f.*, r.RATING_NAME,
+                   g.GENRE_ID AS G_ID, g.GENRE_NAME,
+                   d.DIRECTOR_ID AS D_ID, d.DIRECTOR_NAME
+            FROM (%s) f
+            LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
+            LEFT JOIN GENRES_SAVE gs ON gs.FILM_ID = f.FILM_ID
+            LEFT JOIN GENRES g ON g.GENRE_ID = gs.GENRE_ID
+            LEFT JOIN DIRECTORS_SAVE ds ON ds.FILM_ID = f.FILM_ID
+            LEFT JOIN DIRECTORS d ON d.DIRECTOR_ID = ds.DIRECTOR_ID
+            ORDER BY %s
+            """;
+    private static final String BY_ID = "f.FILM_ID";
+    private static final String BY_LIKES = "f.LIKES_COUNT DESC, f.FILM_ID";
+
+    private final FilmResultSetExtractor extractor;
+
+    public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper, FilmResultSetExtractor extractor) {
         super(jdbc, mapper);
+        this.extractor = extractor;
     }
 
     @Override
@@ -53,26 +78,43 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
 
     @Override
     public List<Film> getFilms() {
-        String sql = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                """;
-        return findMany(sql);
+        return hydrate("SELECT * FROM FILMS", BY_ID);
     }
 
     @Override
     public Film getFilmById(int id) {
-        String sql = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                WHERE f.FILM_ID = ?
-                """;
-        return findOne(sql, id)
+        return hydrate("SELECT * FROM FILMS WHERE FILM_ID = ?", BY_ID, id).stream()
+                .findFirst()
                 .orElseThrow(() -> new NotFoundException("Фильм с id " + id + " не найден"));
     }
 
+    @Override
+    public List<Film> getFilmsByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Части идут по возрастанию id, поэтому склеенный результат тоже упорядочен по id
+        List<Film> films = new ArrayList<>(ids.size());
+        for (List<Integer> chunk : inChunks(ids)) {
+            films.addAll(hydrate("SELECT * FROM FILMS WHERE FILM_ID IN (" + inPlaceholders(chunk) + ")", BY_ID,
+                    inParams(chunk)));
+        }
+        return films;
+    }
+
+    @Override
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        return existingIds("SELECT FILM_ID FROM FILMS WHERE FILM_ID IN (%s)", ids);
+    }
+
+    /**
+     * Страница каталога по ключу: фильмы с id больше afterId, не более limit штук.
+     */
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        return hydrate("SELECT * FROM FILMS WHERE FILM_ID > ? ORDER BY FILM_ID LIMIT ?", BY_ID, afterId, limit);
+    }
+
     @Override
     public void deleteFilm(int filmId) {
         if (!update("DELETE FROM FILMS WHERE FILM_ID = ?", filmId)) {
@@ -80,86 +122,51 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
         }
     }
 
+    /**
+     * Топ фильмов по количеству лайков. Фильтры по жанру и году и LIMIT выполняются в БД,
+     * сортировка идёт по индексу FILMS_LIKES_COUNT_IDX.
+     */
     @Override
-    public List<Film> getFilmsByDirector(int directorId) {
-        String sql = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                WHERE f.FILM_ID IN (
-                    SELECT FILM_ID FROM DIRECTORS_SAVE WHERE DIRECTOR_ID = ?
-                )
-                """;
-        return findMany(sql, directorId);
+    public List<Film> getTopFilms(int count, Integer genreId, Integer year) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM FILMS ff WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM GENRES_SAVE gs WHERE gs.FILM_ID = ff.FILM_ID AND gs.GENRE_ID = ?)");
+            params.add(genreId);
+        }
+        if (year != null) {
+            // Диапазон по дате вместо EXTRACT(YEAR ...), чтобы условие оставалось индексируемым
+            sql.append(" AND ff.RELEASE_DATE >= ? AND ff.RELEASE_DATE < ?");
+            params.add(LocalDate.of(year, 1, 1));
+            params.add(LocalDate.of(year + 1, 1, 1));
+        }
+        sql.append(" ORDER BY ff.LIKES_COUNT DESC, ff.FILM_ID LIMIT ?");
+        params.add(count);
+        return hydrate(sql.toString(), BY_LIKES, params.toArray());
     }
 
     @Override
-    public List<Film> getFilmsByTitle(String searchQuery) {
-        String sql = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                WHERE LOWER(f.FILM_NAME) LIKE ?
-                """;
-        String searchParam = "%" + searchQuery.toLowerCase() + "%";
-        return findMany(sql, searchParam);
+    public List<Film> getFilmsByDirector(int directorId, SortedBy sortBy) {
+        String orderBy = sortBy == SortedBy.LIKES ? BY_LIKES : "f.RELEASE_DATE, f.FILM_ID";
+        return hydrate("""
+                SELECT * FROM FILMS
+                WHERE FILM_ID IN (SELECT FILM_ID FROM DIRECTORS_SAVE WHERE DIRECTOR_ID = ?)
+                """, orderBy, directorId);
     }
 
     @Override
-    public List<Film> getFilmsByDirectorName(String searchQuery) {
-        String sql = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                WHERE f.FILM_ID IN (
-                    SELECT fd.FILM_ID FROM DIRECTORS_SAVE fd
-                    JOIN DIRECTORS d ON fd.DIRECTOR_ID = d.DIRECTOR_ID
-                    WHERE LOWER(d.DIRECTOR_NAME) LIKE ?
+    public List<Film> getCommonFilms(int userId, int friendId) {
+        return hydrate("""
+                SELECT * FROM FILMS
+                WHERE FILM_ID IN (
+                    SELECT FILM_ID FROM LIKE_LIST WHERE USER_ID = ?
+                    INTERSECT
+                    SELECT FILM_ID FROM LIKE_LIST WHERE USER_ID = ?
                 )
-                """;
-        String searchParam = "%" + searchQuery.toLowerCase() + "%";
-        return findMany(sql, searchParam);
+                """, BY_LIKES, userId, friendId);
     }
 
-    @Override
-    public List<Film> getRecommendations(long userId) {
-        // Находим ID похожего пользователя (у которого максимальное пересечение лайков)
-        String queryIntersection = """
-                SELECT ll.USER_ID
-                FROM LIKE_LIST ll
-                WHERE ll.FILM_ID IN (SELECT FILM_ID FROM LIKE_LIST WHERE USER_ID = ?)
-                  AND ll.USER_ID <> ?
-                GROUP BY ll.USER_ID
-                ORDER BY COUNT(ll.FILM_ID) DESC
-                LIMIT ?
-                """;
-        List<Long> similarUserIds = jdbc.queryForList(queryIntersection, Long.class, userId, userId, 1);
-        if (similarUserIds.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        String queryFilmsByUser = """
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                LEFT JOIN LIKE_LIST ll ON f.FILM_ID = ll.FILM_ID
-                WHERE ll.USER_ID = ?
-                """;
-        List<Film> filmsLikedByUser = findMany(queryFilmsByUser, userId);
-
-        String inSql = String.join(",", Collections.nCopies(similarUserIds.size(), "?"));
-        String queryFilmsBySimilar = String.format("""
-                SELECT f.*, r.RATING_NAME as mpa_name
-                FROM FILMS f
-                LEFT JOIN RATING r ON f.RATING_ID = r.RATING_ID
-                LEFT JOIN LIKE_LIST ll ON f.FILM_ID = ll.FILM_ID
-                WHERE ll.USER_ID IN (%s)
-                """, inSql);
-        List<Film> filmsLikedBySimilar = findMany(queryFilmsBySimilar, similarUserIds.toArray());
-
-        // Исключаем из списка фильмы, которые уже лайкнул текущий пользователь
-        filmsLikedBySimilar.removeAll(filmsLikedByUser);
-
-        return filmsLikedBySimilar;
+    private List<Film> hydrate(String filmsQuery, String orderBy, Object... params) {
+        return jdbc.query(String.format(HYDRATE_QUERY, filmsQuery, orderBy), extractor, params);
     }
-}
\ No newline at end of file
+}
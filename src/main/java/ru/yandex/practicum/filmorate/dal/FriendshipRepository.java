@@ -1,12 +1,14 @@
 package ru.yandex.practicum.filmorate.dal;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Repository
 public class FriendshipRepository extends BaseRepository<User> implements FriendshipStorage {
@@ -26,15 +28,18 @@ public class FriendshipRepository extends BaseRepository<User> implements Friend
     }
 
     @Override
-    public List<User> getCommonFriends(int firstUser, int secondUser) {
-        return findMany("SELECT * FROM USERS WHERE USER_ID IN " +
-                "(SELECT FRIEND_ID FROM FRIENDS_LIST WHERE USER_ID = ?) AND USER_ID IN " +
-                "(SELECT FRIEND_ID FROM FRIENDS_LIST WHERE USER_ID = ?)", firstUser, secondUser);
+    public boolean[] applyFriendships(List<int[]> userAndFriend, boolean[] add) {
+        return batchPairs(userAndFriend, add, """
+                MERGE INTO FRIENDS_LIST t USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER))) s(USER_ID, FRIEND_ID)
+                ON t.USER_ID = s.USER_ID AND t.FRIEND_ID = s.FRIEND_ID
+                WHEN NOT MATCHED THEN INSERT (USER_ID, FRIEND_ID) VALUES (s.USER_ID, s.FRIEND_ID)
+                """, "DELETE FROM FRIENDS_LIST WHERE USER_ID = ? AND FRIEND_ID = ?");
     }
 
+    // Построчный обход без сборки всей таблицы в список
     @Override
-    public List<User> getAllUserFriends(int userId) {
-        return findMany("SELECT * FROM USERS WHERE USER_ID IN " +
-                "(SELECT FRIEND_ID FROM FRIENDS_LIST WHERE USER_ID = ?)", userId);
+    public void forEachFriendship(BiConsumer<Integer, Integer> userAndFriend) {
+        jdbc.query("SELECT USER_ID, FRIEND_ID FROM FRIENDS_LIST",
+                (RowCallbackHandler) rs -> userAndFriend.accept(rs.getInt("USER_ID"), rs.getInt("FRIEND_ID")));
     }
 }
\ No newline at end of file
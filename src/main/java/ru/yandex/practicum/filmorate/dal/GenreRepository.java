@@ -8,7 +8,6 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -39,7 +38,9 @@ public class GenreRepository extends BaseRepository<Genre> implements GenreStora
     }
 
     @Override
-    public void createGenresForFilmById(int filmId, List<Genre> genresId) {
+    public void createGenresForFilmById(int filmId, List<Genre> genres) {
+        // Пара (FILM_ID, GENRE_ID) уникальна, а один жанр может прийти дважды с разными полями
+        int[] genresId = genres.stream().mapToInt(Genre::getId).distinct().toArray();
         batchUpdateBase("""
                         INSERT INTO GENRES_SAVE(FILM_ID, GENRE_ID)
                         VALUES (?, ?)
@@ -49,12 +50,12 @@ public class GenreRepository extends BaseRepository<Genre> implements GenreStora
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
                         ps.setLong(1, filmId);
-                        ps.setLong(2, genresId.get(i).getId());
+                        ps.setLong(2, genresId[i]);
                     }
 
                     @Override
                     public int getBatchSize() {
-                        return genresId.size();
+                        return genresId.length;
                     }
                 }
         );
@@ -80,26 +81,20 @@ public class GenreRepository extends BaseRepository<Genre> implements GenreStora
         if (filmIds.isEmpty()) {
             return Collections.emptyMap();
         }
-        // Формируем строку плейсхолдеров (например, "?, ?, ?")
-        String placeholders = String.join(",", Collections.nCopies(filmIds.size(), "?"));
-        String sql = String.format(
-                "SELECT gs.FILM_ID, g.GENRE_ID, g.GENRE_NAME AS genre_name " +
-                "FROM GENRES_SAVE gs " +
-                "JOIN GENRES g ON gs.GENRE_ID = g.GENRE_ID " +
-                "WHERE gs.FILM_ID IN (%s)",
-                placeholders);
-        Object[] params = filmIds.toArray();
+        // Id обрабатываются частями ограниченного размера, результаты частей собираются в одну карту
         Map<Integer, Set<Genre>> result = new HashMap<>();
-        jdbc.query(sql, params, (ResultSet rs) -> {
-            while (rs.next()) {
-                int filmId = rs.getInt("FILM_ID");
-                int genreId = rs.getInt("GENRE_ID");
-                String genreName = rs.getString("genre_name");
-                Genre genre = new Genre(genreId, genreName);
-                result.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(genre);
-            }
-            return result;
-        });
+        queryInChunks("SELECT gs.FILM_ID, g.GENRE_ID, g.GENRE_NAME AS genre_name " +
+                        "FROM GENRES_SAVE gs " +
+                        "JOIN GENRES g ON gs.GENRE_ID = g.GENRE_ID " +
+                        "WHERE gs.FILM_ID IN (%s)",
+                filmIds,
+                rs -> {
+                    int filmId = rs.getInt("FILM_ID");
+                    int genreId = rs.getInt("GENRE_ID");
+                    String genreName = rs.getString("genre_name");
+                    Genre genre = new Genre(genreId, genreName);
+                    result.computeIfAbsent(filmId, k -> new LinkedHashSet<>()).add(genre);
+                });
         return result;
     }
 }
@@ -1,12 +1,15 @@
 package ru.yandex.practicum.filmorate.dal;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.storage.LikesStorage;
 
+import java.sql.ResultSet;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Repository
 public class LikesRepository extends BaseRepository<Film> implements LikesStorage {
@@ -15,23 +18,96 @@ public class LikesRepository extends BaseRepository<Film> implements LikesStorag
         super(jdbc, mapper);
     }
 
+    // Счётчик LIKES_COUNT меняем только если строка в LIKE_LIST действительно добавилась/удалилась
     @Override
-    public void addLike(int filmId, int userId) {
-        update("INSERT INTO LIKE_LIST (FILM_ID, USER_ID) VALUES (?, ?)", filmId, userId);
+    public boolean addLike(int filmId, int userId) {
+        if (update("INSERT INTO LIKE_LIST (FILM_ID, USER_ID) VALUES (?, ?)", filmId, userId)) {
+            update("UPDATE FILMS SET LIKES_COUNT = LIKES_COUNT + 1 WHERE FILM_ID = ?", filmId);
+            return true;
+        }
+        return false;
     }
 
     @Override
-    public void deleteLike(int filmId, int userId) {
-        delete("DELETE FROM LIKE_LIST WHERE FILM_ID = ? AND USER_ID = ?", filmId, userId);
+    public boolean deleteLike(int filmId, int userId) {
+        if (delete("DELETE FROM LIKE_LIST WHERE FILM_ID = ? AND USER_ID = ?", filmId, userId)) {
+            update("UPDATE FILMS SET LIKES_COUNT = LIKES_COUNT - 1 WHERE FILM_ID = ?", filmId);
+            return true;
+        }
+        return false;
+    }
+
+    // Каскадное удаление пользователя не трогает LIKES_COUNT, поэтому лайки снимаем явно
+    @Override
+    public void deleteLikesByUser(int userId) {
+        update("""
+                UPDATE FILMS SET LIKES_COUNT = LIKES_COUNT - 1
+                WHERE FILM_ID IN (SELECT FILM_ID FROM LIKE_LIST WHERE USER_ID = ?)
+                """, userId);
+        delete("DELETE FROM LIKE_LIST WHERE USER_ID = ?", userId);
     }
 
     @Override
     public int getLikeCountForFilm(int filmId) {
-        return jdbc.queryForObject("SELECT COUNT(*) FROM LIKE_LIST WHERE FILM_ID = ?", Integer.class, filmId);
+        return jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = ?", Integer.class, filmId);
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> result = new HashMap<>();
+        jdbc.query("SELECT FILM_ID, COUNT(*) AS LIKES FROM LIKE_LIST GROUP BY FILM_ID", (ResultSet rs) -> {
+            while (rs.next()) {
+                result.put(rs.getInt("FILM_ID"), rs.getInt("LIKES"));
+            }
+            return result;
+        });
+        return result;
+    }
+
+    // MERGE вместо INSERT: повторный лайк даёт 0 изменённых строк, а не ошибку, которая откатила бы весь пакет.
+    // LIKES_COUNT правится одним UPDATE на фильм на суммарное изменение
+    @Override
+    public boolean[] applyLikes(List<int[]> filmAndUser, boolean[] add) {
+        boolean[] changed = batchPairs(filmAndUser, add, """
+                MERGE INTO LIKE_LIST t USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER))) s(FILM_ID, USER_ID)
+                ON t.FILM_ID = s.FILM_ID AND t.USER_ID = s.USER_ID
+                WHEN NOT MATCHED THEN INSERT (FILM_ID, USER_ID) VALUES (s.FILM_ID, s.USER_ID)
+                """, "DELETE FROM LIKE_LIST WHERE FILM_ID = ? AND USER_ID = ?");
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                deltas.merge(filmAndUser.get(i)[0], add[i] ? 1 : -1, Integer::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            jdbc.batchUpdate("UPDATE FILMS SET LIKES_COUNT = LIKES_COUNT + ? WHERE FILM_ID = ?",
+                    deltas.entrySet().stream()
+                            .map(delta -> new Object[]{delta.getValue(), delta.getKey()})
+                            .toList());
+        }
+        return changed;
+    }
+
+    // Пересчёт LIKES_COUNT по LIKE_LIST для фильмов, у которых счётчик разошёлся с таблицей
+    @Override
+    public void recountLikes() {
+        update("""
+                UPDATE FILMS f
+                SET LIKES_COUNT = (SELECT COUNT(*) FROM LIKE_LIST ll WHERE ll.FILM_ID = f.FILM_ID)
+                WHERE LIKES_COUNT <> (SELECT COUNT(*) FROM LIKE_LIST ll WHERE ll.FILM_ID = f.FILM_ID)
+                """);
     }
 
     @Override
     public Set<Integer> getLikedFilmsByUser(int userId) {
         return new HashSet<>(jdbc.queryForList("SELECT FILM_ID FROM LIKE_LIST WHERE USER_ID = ?", Integer.class, userId));
     }
-}
\ No newline at end of file
+
+    // Построчный обход без сборки всей таблицы в список
+    @Override
+    public void forEachLike(BiConsumer<Integer, Integer> userAndFilm) {
+        jdbc.query("SELECT USER_ID, FILM_ID FROM LIKE_LIST ORDER BY USER_ID, FILM_ID",
+                (RowCallbackHandler) rs -> userAndFilm.accept(rs.getInt("USER_ID"), rs.getInt("FILM_ID")));
+    }
+}
@@ -1,12 +1,17 @@
 package ru.yandex.practicum.filmorate.dal;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.mapper.ReviewRowMapper;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class ReviewRepository extends BaseRepository<Review> implements ReviewStorage {
@@ -58,29 +63,24 @@ public class ReviewRepository extends BaseRepository<Review> implements ReviewSt
                 """, reviewId).get();
     }
 
-    /**
-     * Получение списка отзывов.
-     * Если filmId равен null, выбираются отзывы для всех фильмов,
-     * иначе — только для указанного фильма.
-     */
     @Override
-    public List<Review> getReviewsByFilmId(Integer filmId, int count) {
-        if (filmId == null) {
-            return findMany("""
+    public List<Review> getReviewsByIds(Collection<Integer> ids) {
+        List<Review> reviews = new ArrayList<>(ids.size());
+        for (List<Integer> chunk : inChunks(ids)) {
+            reviews.addAll(findMany("""
                     SELECT REVIEW_ID, USER_ID, FILM_ID, CONTENT, IS_POSITIVE, USEFUL
                     FROM REVIEWS
-                    ORDER BY USEFUL DESC
-                    LIMIT ?
-                    """, count);
-        } else {
-            return findMany("""
-                    SELECT REVIEW_ID, USER_ID, FILM_ID, CONTENT, IS_POSITIVE, USEFUL
-                    FROM REVIEWS
-                    WHERE FILM_ID = ?
-                    ORDER BY USEFUL DESC
-                    LIMIT ?
-                    """, filmId, count);
+                    WHERE REVIEW_ID IN (%s)
+                    """.formatted(inPlaceholders(chunk)), inParams(chunk)));
         }
+        return reviews;
+    }
+
+    @Override
+    public void forEachRank(RankConsumer consumer) {
+        jdbc.query("SELECT REVIEW_ID, FILM_ID, USEFUL FROM REVIEWS",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getInt("REVIEW_ID"), rs.getInt("FILM_ID"),
+                        rs.getInt("USEFUL")));
     }
 
     // Удаление отзыва по ID
@@ -89,41 +89,59 @@ public class ReviewRepository extends BaseRepository<Review> implements ReviewSt
         delete("DELETE FROM REVIEWS WHERE REVIEW_ID = ?", reviewId);
     }
 
-    // Методы для работы с лайками и дизлайками
+    // Голоса за отзывы. Каждый шаг — один оператор, и изменение полезности определяется
+    // по числу затронутых им строк, поэтому параллельные голоса не дают расхождений
 
     @Override
-    public void addLike(int reviewId, int userId) {
-        update("""
-                INSERT INTO REVIEW_LIKES (REVIEW_ID, USER_ID, IS_LIKE)
-                VALUES (?, ?, ?)
-                """, reviewId, userId, true);
-        update("UPDATE REVIEWS SET USEFUL = USEFUL + 1 WHERE REVIEW_ID = ?", reviewId);
+    public int setVote(int reviewId, int userId, boolean isLike) {
+        int useful = isLike ? 1 : -1;
+        if (flipVote(reviewId, userId, isLike)) {
+            return 2 * useful;
+        }
+        try {
+            jdbc.update("INSERT INTO REVIEW_LIKES (REVIEW_ID, USER_ID, IS_LIKE) VALUES (?, ?, ?)",
+                    reviewId, userId, isLike);
+            return useful;
+        } catch (DuplicateKeyException e) {
+            // Голос появился между двумя операторами: либо он уже такой, либо его ещё можно сменить
+            return flipVote(reviewId, userId, isLike) ? 2 * useful : 0;
+        }
     }
 
     @Override
-    public void addDislike(int reviewId, int userId) {
-        update("""
-                INSERT INTO REVIEW_LIKES (REVIEW_ID, USER_ID, IS_LIKE)
-                VALUES (?, ?, ?)
-                """, reviewId, userId, false);
-        update("UPDATE REVIEWS SET USEFUL = USEFUL - 1 WHERE REVIEW_ID = ?", reviewId);
+    public int removeVote(int reviewId, int userId, boolean isLike) {
+        boolean removed = delete("""
+                DELETE FROM REVIEW_LIKES
+                WHERE REVIEW_ID = ? AND USER_ID = ? AND IS_LIKE = ?
+                """, reviewId, userId, isLike);
+        return removed ? (isLike ? -1 : 1) : 0;
     }
 
     @Override
-    public void removeLike(int reviewId, int userId) {
-        delete("""
-                DELETE FROM REVIEW_LIKES
-                WHERE REVIEW_ID = ? AND USER_ID = ? AND IS_LIKE = true
-                """, reviewId, userId);
-        update("UPDATE REVIEWS SET USEFUL = USEFUL - 1 WHERE REVIEW_ID = ?", reviewId);
+    public void addUseful(Map<Integer, Long> deltas) {
+        jdbc.batchUpdate("UPDATE REVIEWS SET USEFUL = USEFUL + ? WHERE REVIEW_ID = ?",
+                deltas.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                        .toList());
     }
 
     @Override
-    public void removeDislike(int reviewId, int userId) {
-        update("""
-                DELETE FROM REVIEW_LIKES
-                WHERE REVIEW_ID = ? AND USER_ID = ? AND IS_LIKE = false
-                """, reviewId, userId);
-        update("UPDATE REVIEWS SET USEFUL = USEFUL + 1 WHERE REVIEW_ID = ?", reviewId);
+    public int reconcileUseful() {
+        return jdbc.update("""
+                UPDATE REVIEWS r
+                SET USEFUL = (SELECT COALESCE(SUM(CASE WHEN l.IS_LIKE THEN 1 ELSE -1 END), 0)
+                              FROM REVIEW_LIKES l
+                              WHERE l.REVIEW_ID = r.REVIEW_ID)
+                WHERE USEFUL <> (SELECT COALESCE(SUM(CASE WHEN l.IS_LIKE THEN 1 ELSE -1 END), 0)
+                                 FROM REVIEW_LIKES l
+                                 WHERE l.REVIEW_ID = r.REVIEW_ID)
+                """);
+    }
+
+    private boolean flipVote(int reviewId, int userId, boolean isLike) {
+        return update("""
+                UPDATE REVIEW_LIKES SET IS_LIKE = ?
+                WHERE REVIEW_ID = ? AND USER_ID = ? AND IS_LIKE <> ?
+                """, isLike, reviewId, userId, isLike);
     }
-}
\ No newline at end of file
+}
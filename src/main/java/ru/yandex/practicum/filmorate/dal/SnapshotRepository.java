@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.bulk.ExportTable;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SnapshotStorage;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Repository
+public class SnapshotRepository extends BaseRepository<User> implements SnapshotStorage {
+    // Отдельный шаблон с ограниченным размером выборки: драйвер не держит в памяти всю таблицу
+    private final JdbcTemplate streamingJdbc;
+    private final Map<ExportTable, List<String>> columns = new ConcurrentHashMap<>();
+
+    public SnapshotRepository(JdbcTemplate jdbc, RowMapper<User> mapper,
+                              @Value("${filmorate.export.fetch-size:1000}") int fetchSize) {
+        super(jdbc, mapper);
+        this.streamingJdbc = new JdbcTemplate(jdbc.getDataSource());
+        this.streamingJdbc.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public List<String> getColumns(ExportTable table) {
+        return columns.computeIfAbsent(table, t -> jdbc.query("SELECT * FROM " + t.tableName() + " LIMIT 0",
+                (ResultSetExtractor<List<String>>) rs -> {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    List<String> names = new ArrayList<>(metaData.getColumnCount());
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        names.add(metaData.getColumnLabel(i));
+                    }
+                    return Collections.unmodifiableList(names);
+                }));
+    }
+
+    @Override
+    public Stream<Object[]> streamRows(ExportTable table, int[] after) {
+        String keys = String.join(", ", table.keyColumns());
+        String select = "SELECT " + String.join(", ", getColumns(table)) + " FROM " + table.tableName();
+        RowMapper<Object[]> row = (rs, rowNum) -> {
+            Object[] values = new Object[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            return values;
+        };
+        if (after == null) {
+            return streamingJdbc.queryForStream(select + " ORDER BY " + keys, row);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(after.length, "?"));
+        return streamingJdbc.queryForStream(select + " WHERE (" + keys + ") > (" + placeholders + ")"
+                + " ORDER BY " + keys, row, Arrays.stream(after).boxed().toArray());
+    }
+}
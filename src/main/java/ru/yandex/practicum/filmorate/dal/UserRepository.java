@@ -53,6 +53,29 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
         return findOne("SELECT * FROM USERS WHERE USER_ID = ?", id).get();
     }
 
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        return findMany("SELECT * FROM USERS WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?", afterId, limit);
+    }
+
+    @Override
+    public List<User> getUsersByIds(int[] ids) {
+        if (ids.length == 0) {
+            return Collections.emptyList();
+        }
+        List<User> users = new ArrayList<>(ids.length);
+        for (List<Integer> chunk : inChunks(Arrays.stream(ids).boxed().toList())) {
+            users.addAll(findMany("SELECT * FROM USERS WHERE USER_ID IN (" + inPlaceholders(chunk) + ")"
+                    + " ORDER BY USER_ID", inParams(chunk)));
+        }
+        return users;
+    }
+
+    @Override
+    public Set<Integer> getExistingIds(Collection<Integer> ids) {
+        return existingIds("SELECT USER_ID FROM USERS WHERE USER_ID IN (%s)", ids);
+    }
+
     @Override
     public void deleteUser(int id) {
         delete("DELETE FROM USERS WHERE USER_ID = ?", id);
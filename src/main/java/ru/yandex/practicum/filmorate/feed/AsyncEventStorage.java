@@ -0,0 +1,237 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+import ru.yandex.practicum.filmorate.dal.status.EventType;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Запись событий ленты в фоне пакетами перед {@link EventRepository}.
+ * События копятся в неблокирующей очереди ограниченного размера; один поток-писатель сбрасывает их
+ * пакетной вставкой, когда набирается batch-size событий или проходит flush-interval-ms.
+ * При переполненной очереди вызывающий поток сам сбрасывает очередь и только потом добавляет событие.
+ * Перед чтением и удалением ленты очередь сбрасывается, при остановке приложения — дописывается до конца.
+ * События, добавленные внутри транзакции, пишутся сразу в ней же, минуя очередь: они фиксируются
+ * и откатываются вместе с изменениями, о которых сообщают.
+ * Выключается свойством filmorate.events.async=false: тогда события пишутся сразу через репозиторий.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "filmorate.events.async", havingValue = "true")
+public class AsyncEventStorage implements EventStorage, MeterBinder {
+    private final EventRepository eventRepository;
+    private final int batchSize;
+    private final int capacity;
+
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService writer;
+    private volatile boolean closed;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backpressure = new AtomicLong();
+
+    public AsyncEventStorage(EventRepository eventRepository,
+                             @Value("${filmorate.events.batch-size:200}") int batchSize,
+                             @Value("${filmorate.events.flush-interval-ms:200}") long flushIntervalMs,
+                             @Value("${filmorate.events.queue-capacity:10000}") int capacity) {
+        this.eventRepository = eventRepository;
+        this.batchSize = batchSize;
+        this.capacity = Math.max(capacity, batchSize);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "feed-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void addEvent(int userId, EventType eventType, EventOperation operation, int entityId) {
+        addEvents(List.of(Event.builder()
+                .timestamp(System.currentTimeMillis())
+                .userId(userId)
+                .eventType(eventType.toString())
+                .operation(operation.toString())
+                .entityId(entityId)
+                .build()));
+    }
+
+    @Override
+    public void addEvents(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // Ошибка записи здесь не глотается: она должна откатить транзакцию вызывающего
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            eventRepository.addEvents(events);
+            written.addAndGet(events.size());
+            batches.incrementAndGet();
+            return;
+        }
+        events.forEach(this::enqueue);
+    }
+
+    @Override
+    public List<Event> getFeedUserById(int id) {
+        flush();
+        return eventRepository.getFeedUserById(id);
+    }
+
+    @Override
+    public List<Event> getLatestEvents(int userId, int limit) {
+        flush();
+        return eventRepository.getLatestEvents(userId, limit);
+    }
+
+    @Override
+    public List<Event> getEventsSince(int userId, int sinceId, int limit) {
+        flush();
+        return eventRepository.getEventsSince(userId, sinceId, limit);
+    }
+
+    @Override
+    public List<Event> getEventsBefore(int userId, int beforeId, int limit) {
+        flush();
+        return eventRepository.getEventsBefore(userId, beforeId, limit);
+    }
+
+    @Override
+    public Map<Integer, Integer> getLastEventIds() {
+        flush();
+        return eventRepository.getLastEventIds();
+    }
+
+    @Override
+    public void deleteEventsByUserId(int userId) {
+        flush();
+        eventRepository.deleteEventsByUserId(userId);
+    }
+
+    /**
+     * Записывает в БД всё, что успело попасть в очередь, пакетами по batch-size.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            List<Event> batch = new ArrayList<>(batchSize);
+            Event event;
+            while ((event = queue.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(event);
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Поток записи событий не остановился вовремя");
+        }
+        flush();
+        log.info("Запись событий остановлена: записано {}, потеряно {}", written.get(), dropped.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.events.queue.size", size, AtomicInteger::get)
+                .description("События в очереди на запись")
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.written", written, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.batches", batches, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.dropped", dropped, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.backpressure", backpressure, AtomicLong::get)
+                .description("Сколько раз очередь была полна и событие записал вызывающий поток")
+                .register(registry);
+    }
+
+    private void enqueue(Event event) {
+        while (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            backpressure.incrementAndGet();
+            flush();
+        }
+        queue.offer(event);
+        if (closed) {
+            // Писатель уже остановлен — событие, пришедшее во время остановки, пишем сами
+            flush();
+        } else if (size.get() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка фоновой записи событий", e);
+        }
+    }
+
+    // Если пакет не записался целиком, события пишутся по одному, чтобы терять только ошибочные
+    private void write(List<Event> batch) {
+        try {
+            eventRepository.addEvents(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (DataAccessException e) {
+            log.warn("Пакет из {} событий не записан, пишем по одному: {}", batch.size(), e.getMessage());
+            for (Event event : batch) {
+                try {
+                    eventRepository.addEvents(List.of(event));
+                    written.incrementAndGet();
+                } catch (DataAccessException single) {
+                    dropped.incrementAndGet();
+                    log.error("Событие {} не записано", event, single);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Кольцевой буфер последних событий по возрастанию EVENT_ID; при переполнении вытесняется самое старое.
+ * Буфер содержит все события своего источника начиная с самого старого в нём.
+ * Не потокобезопасен: доступ идёт под блокировкой {@link EventRings}.
+ */
+class EventRing {
+    private final Event[] events;
+    private int head;
+    private int count;
+    boolean loaded;
+    // При загрузке из БД пришло меньше событий, чем вмещает буфер
+    boolean complete;
+    private boolean evicted;
+
+    EventRing(int capacity) {
+        this.events = new Event[capacity];
+    }
+
+    int count() {
+        return count;
+    }
+
+    // В буфере вся история источника: ни одно событие не вытеснено
+    boolean coversAll() {
+        return complete && !evicted;
+    }
+
+    Event get(int index) {
+        return events[(head + index) % events.length];
+    }
+
+    void add(Event event) {
+        int pos = count;
+        while (pos > 0 && get(pos - 1).getEventId() > event.getEventId()) {
+            pos--;
+        }
+        if (pos > 0 && get(pos - 1).getEventId().equals(event.getEventId())) {
+            return;
+        }
+        if (count == events.length) {
+            evicted = true;
+            if (pos == 0) {
+                // Событие старше всех в полном буфере — в последние оно уже не входит
+                return;
+            }
+            head = (head + 1) % events.length;
+            count--;
+            pos--;
+        }
+        for (int i = count; i > pos; i--) {
+            set(i, get(i - 1));
+        }
+        set(pos, event);
+        count++;
+    }
+
+    void removeIf(Predicate<Event> filter) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Event event = get(i);
+            if (!filter.test(event)) {
+                set(kept++, event);
+            } else {
+                evicted = true;
+            }
+        }
+        for (int i = kept; i < count; i++) {
+            set(i, null);
+        }
+        count = kept;
+    }
+
+    /**
+     * Последние limit событий; пусто, если часть из них уже вытеснена.
+     */
+    Optional<List<Event>> latest(int limit) {
+        if (count < limit && !coversAll()) {
+            return Optional.empty();
+        }
+        return Optional.of(slice(Math.max(0, count - limit), limit));
+    }
+
+    /**
+     * Не больше limit событий с id больше sinceId; пусто, если часть из них уже вытеснена.
+     */
+    Optional<List<Event>> since(int sinceId, int limit) {
+        if (!coversAll() && (count == 0 || sinceId < get(0).getEventId() - 1)) {
+            return Optional.empty();
+        }
+        int from = 0;
+        while (from < count && get(from).getEventId() <= sinceId) {
+            from++;
+        }
+        return Optional.of(slice(from, limit));
+    }
+
+    /**
+     * Последние limit событий с id меньше beforeId; пусто, если часть из них уже вытеснена.
+     */
+    Optional<List<Event>> before(int beforeId, int limit) {
+        int to = count;
+        while (to > 0 && get(to - 1).getEventId() >= beforeId) {
+            to--;
+        }
+        if (to < limit && !coversAll()) {
+            return Optional.empty();
+        }
+        int from = Math.max(0, to - limit);
+        return Optional.of(slice(from, to - from));
+    }
+
+    private void set(int index, Event event) {
+        events[(head + index) % events.length] = event;
+    }
+
+    private List<Event> slice(int from, int limit) {
+        List<Event> result = new ArrayList<>(Math.min(limit, Math.max(0, count - from)));
+        for (int i = from; i < count && result.size() < limit; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Кольцевые буферы событий по пользователям с вытеснением дольше всех не читавшихся.
+ * Буфер загружается при первом чтении; события, записанные во время загрузки, в него не теряются.
+ */
+class EventRings {
+    private final int capacity;
+    private final Map<Integer, EventRing> rings;
+
+    EventRings(int capacity, int maxUsers) {
+        this.capacity = capacity;
+        this.rings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, EventRing> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Читает буфер пользователя, при необходимости загрузив его через loader
+     * (не больше capacity последних событий по убыванию id).
+     */
+    <R> R read(int userId, IntFunction<List<Event>> loader, Function<EventRing, R> reader) {
+        EventRing ring = ensureLoaded(userId, loader);
+        synchronized (this) {
+            return reader.apply(ring);
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return rings.isEmpty();
+    }
+
+    synchronized boolean contains(int userId) {
+        return rings.containsKey(userId);
+    }
+
+    /**
+     * Добавляет событие в буфер пользователя, если буфер есть.
+     */
+    synchronized void add(int userId, Event event) {
+        EventRing ring = rings.get(userId);
+        if (ring != null) {
+            ring.add(event);
+        }
+    }
+
+    synchronized void removeIf(Predicate<Event> filter) {
+        rings.values().forEach(ring -> ring.removeIf(filter));
+    }
+
+    synchronized void remove(int userId) {
+        rings.remove(userId);
+    }
+
+    synchronized void clear() {
+        rings.clear();
+    }
+
+    // Пустой буфер ставится до запроса к БД: события, записанные во время загрузки, попадут в него
+    // через add, а уже прочитанные из БД отбрасываются как повторы
+    private EventRing ensureLoaded(int userId, IntFunction<List<Event>> loader) {
+        EventRing ring;
+        synchronized (this) {
+            ring = rings.get(userId);
+            if (ring != null && ring.loaded) {
+                return ring;
+            }
+            if (ring == null) {
+                ring = new EventRing(capacity);
+                rings.put(userId, ring);
+            }
+        }
+        List<Event> newestFirst = loader.apply(capacity);
+        synchronized (this) {
+            if (!ring.loaded) {
+                newestFirst.forEach(ring::add);
+                ring.complete = newestFirst.size() < capacity;
+                ring.loaded = true;
+            }
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Лента событий тех, на кого подписан пользователь (FRIENDS_LIST), по убыванию EVENT_ID —
+ * id событий выдаются в порядке их времени.
+ * События обычных авторов при записи раскладываются по входящим буферам подписчиков (fan-out-on-write);
+ * события авторов, у которых подписчиков больше celebrity-followers, берутся при чтении (fan-out-on-read).
+ * Чтение — k-путевое слияние потоков авторов: по известному id последнего события каждого автора
+ * из БД подгружаются только те авторы, чьи события действительно попадают в страницу,
+ * поэтому число запросов зависит от limit, а не от числа подписок.
+ */
+@Slf4j
+@Component
+public class FriendsFeed implements SavedEventsListener {
+    private final EventStorage eventStorage;
+    private final SocialGraph socialGraph;
+    private final int celebrityFollowers;
+    private final EventRings inboxes;
+
+    private final Map<Integer, Integer> lastEventIds = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public FriendsFeed(EventStorage eventStorage,
+                       SocialGraph socialGraph,
+                       @Value("${filmorate.feed.inbox-size:200}") int inboxSize,
+                       @Value("${filmorate.feed.max-users:10000}") int maxUsers,
+                       @Value("${filmorate.feed.celebrity-followers:1000}") int celebrityFollowers) {
+        this.eventStorage = eventStorage;
+        this.socialGraph = socialGraph;
+        this.celebrityFollowers = celebrityFollowers;
+        this.inboxes = new EventRings(inboxSize, maxUsers);
+    }
+
+    /**
+     * Не больше limit событий с id меньше beforeId (без него — самые свежие) по возрастанию id.
+     */
+    public List<Event> getFeed(int userId, Integer beforeId, int limit) {
+        ensureLoaded();
+        int[] authors = socialGraph.getFriendIds(userId);
+        List<Event> newestFirst = null;
+        if (beforeId == null && limit <= inboxes.capacity()) {
+            // Буфер собирается по всем авторам, а дальше пополняется только событиями обычных;
+            // свежие события популярных авторов добираются слиянием при чтении
+            Optional<List<Event>> inbox = inboxes.read(userId,
+                    count -> merge(authors, Integer.MAX_VALUE, count), ring -> ring.latest(limit));
+            if (inbox.isPresent()) {
+                int[] pulled = Arrays.stream(authors).filter(this::isCelebrity).toArray();
+                newestFirst = mergeNewestFirst(inbox.get().reversed(), merge(pulled, Integer.MAX_VALUE, limit), limit);
+            }
+        }
+        if (newestFirst == null) {
+            newestFirst = merge(authors, beforeId == null ? Integer.MAX_VALUE : beforeId, limit);
+        }
+        return newestFirst.reversed();
+    }
+
+    /**
+     * Перечитывает id последних событий авторов и сбрасывает входящие буферы. При старте загружает их заранее,
+     * чтобы первое чтение ленты не ждало этого запроса; повторный вызов нужен после записи событий в обход
+     * слушателей (например, наполнения БД для замеров).
+     */
+    public synchronized void rebuild() {
+        eventStorage.getLastEventIds().forEach((userId, lastId) -> lastEventIds.merge(userId, lastId, Math::max));
+        inboxes.clear();
+        loaded = true;
+        log.info("Лента подписок: известны события {} авторов", lastEventIds.size());
+    }
+
+    /**
+     * Подписки пользователя изменились: его входящий буфер собирается заново.
+     */
+    public void onFollowChanged(int userId) {
+        inboxes.remove(userId);
+    }
+
+    @Override
+    public void onEventsSaved(List<Event> events) {
+        events.forEach(event -> lastEventIds.merge(event.getUserId(), event.getEventId(), Math::max));
+        if (inboxes.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Event>> byAuthor = events.stream()
+                .filter(event -> !isCelebrity(event.getUserId()))
+                .collect(Collectors.groupingBy(Event::getUserId));
+        byAuthor.forEach((authorId, authored) -> {
+            for (int followerId : socialGraph.getFollowerIds(authorId)) {
+                if (inboxes.contains(followerId)) {
+                    authored.forEach(event -> inboxes.add(followerId, event));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onUserEventsDeleted(int userId) {
+        lastEventIds.remove(userId);
+        inboxes.remove(userId);
+        inboxes.removeIf(event -> event.getUserId() == userId);
+    }
+
+    private boolean isCelebrity(int userId) {
+        return socialGraph.getFollowerCount(userId) > celebrityFollowers;
+    }
+
+    // Слияние потоков событий авторов по убыванию id. Для автора без загруженной страницы в куче лежит
+    // верхняя граница id его следующего события; когда такой автор оказывается наверху, его страница
+    // подгружается и он возвращается в кучу уже с точным id
+    private List<Event> merge(int[] authors, int beforeId, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparingInt((Cursor cursor) -> cursor.bound)
+                .reversed());
+        for (int authorId : authors) {
+            Integer lastId = lastEventIds.get(authorId);
+            if (lastId != null && Math.min(lastId, beforeId - 1) > 0) {
+                heap.add(new Cursor(authorId, Math.min(lastId, beforeId - 1)));
+            }
+        }
+        List<Event> result = new ArrayList<>(Math.min(limit, 1024));
+        while (result.size() < limit && !heap.isEmpty()) {
+            Cursor cursor = heap.poll();
+            if (cursor.page == null) {
+                int requested = limit - result.size();
+                List<Event> page = eventStorage.getEventsBefore(cursor.authorId, cursor.bound + 1, requested);
+                if (!page.isEmpty()) {
+                    cursor.page = page;
+                    cursor.pos = page.size() - 1;
+                    cursor.exhausted = page.size() < requested;
+                    cursor.bound = page.get(cursor.pos).getEventId();
+                    heap.add(cursor);
+                }
+                continue;
+            }
+            Event event = cursor.page.get(cursor.pos--);
+            result.add(event);
+            if (cursor.pos >= 0) {
+                cursor.bound = cursor.page.get(cursor.pos).getEventId();
+                heap.add(cursor);
+            } else if (!cursor.exhausted && event.getEventId() > 1) {
+                cursor.page = null;
+                cursor.bound = event.getEventId() - 1;
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    // Слияние двух списков по убыванию id без повторов: буфер собран по всем авторам,
+    // поэтому часть событий популярных авторов есть и в нём
+    private static List<Event> mergeNewestFirst(List<Event> first, List<Event> second, int limit) {
+        List<Event> result = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        int lastId = Integer.MAX_VALUE;
+        while (result.size() < limit && (i < first.size() || j < second.size())) {
+            Event next;
+            if (j >= second.size() || i < first.size() && first.get(i).getEventId() >= second.get(j).getEventId()) {
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if (next.getEventId() < lastId) {
+                result.add(next);
+                lastId = next.getEventId();
+            }
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                eventStorage.getLastEventIds().forEach((userId, lastId) -> lastEventIds.merge(userId, lastId, Math::max));
+                loaded = true;
+                log.info("Лента подписок: известны события {} авторов", lastEventIds.size());
+            }
+        }
+    }
+
+    private static class Cursor {
+        private final int authorId;
+        private int bound;
+        // Загруженная страница автора по возрастанию id и позиция следующего события в ней
+        private List<Event> page;
+        private int pos;
+        private boolean exhausted;
+
+        private Cursor(int authorId, int bound) {
+            this.authorId = authorId;
+            this.bound = bound;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Последние события ленты для недавно читавшихся пользователей: на каждого — кольцевой буфер
+ * из recent-size событий по возрастанию EVENT_ID. Буфер всегда содержит все события пользователя
+ * начиная с самого старого в нём, поэтому свежие страницы ленты отдаются без обращения к БД.
+ * Число пользователей ограничено max-users, дольше всех не читавшиеся вытесняются.
+ */
+@Component
+public class RecentEventsBuffer implements SavedEventsListener {
+    private final EventRings rings;
+
+    public RecentEventsBuffer(@Value("${filmorate.feed.recent-size:100}") int capacity,
+                              @Value("${filmorate.feed.max-users:10000}") int maxUsers) {
+        this.rings = new EventRings(capacity, maxUsers);
+    }
+
+    /**
+     * Последние limit событий пользователя по возрастанию id; пусто, если буфер не может ответить.
+     * Для пользователя без буфера он загружается через loader (последние события по убыванию id).
+     */
+    public Optional<List<Event>> latest(int userId, int limit, IntFunction<List<Event>> loader) {
+        return rings.read(userId, loader, ring -> ring.latest(limit));
+    }
+
+    /**
+     * Не больше limit событий пользователя с id больше sinceId; пусто, если часть из них вытеснена из буфера.
+     */
+    public Optional<List<Event>> since(int userId, int sinceId, int limit, IntFunction<List<Event>> loader) {
+        return rings.read(userId, loader, ring -> ring.since(sinceId, limit));
+    }
+
+    /**
+     * Последние limit событий пользователя с id меньше beforeId; пусто, если часть из них вытеснена из буфера.
+     */
+    public Optional<List<Event>> before(int userId, int beforeId, int limit, IntFunction<List<Event>> loader) {
+        return rings.read(userId, loader, ring -> ring.before(beforeId, limit));
+    }
+
+    @Override
+    public void onEventsSaved(List<Event> events) {
+        events.forEach(event -> rings.add(event.getUserId(), event));
+    }
+
+    @Override
+    public void onUserEventsDeleted(int userId) {
+        rings.remove(userId);
+    }
+
+    public void clear() {
+        rings.clear();
+    }
+}
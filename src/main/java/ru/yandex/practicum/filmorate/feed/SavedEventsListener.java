@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.List;
+
+/**
+ * Получает события ленты после фиксации их записи в БД, уже с присвоенными id.
+ */
+public interface SavedEventsListener {
+
+    void onEventsSaved(List<Event> events);
+
+    void onUserEventsDeleted(int userId);
+}
@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поиск подстроки в названиях фильмов и именах режиссёров по триграммному индексу в памяти.
+ * Для запроса из трёх и более символов кандидаты берутся из самого короткого списка триграммы
+ * и проверяются полным сравнением; короткие запросы проверяются по всем названиям без обращения к БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int GRAM = 3;
+
+    private final FilmStorage filmStorage;
+    private final DirectorStorage directorStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+
+    private volatile State state;
+
+    /**
+     * Id найденных фильмов по убыванию числа лайков, не больше limit.
+     */
+    public List<Integer> search(String query, boolean byTitle, boolean byDirector, int limit) {
+        State current = ensureLoaded();
+        String needle = normalize(query);
+        Set<Integer> found = new HashSet<>();
+        if (byTitle) {
+            found.addAll(current.titles.find(needle));
+        }
+        if (byDirector) {
+            for (int directorId : current.directorNames.find(needle)) {
+                found.addAll(current.filmsByDirector.getOrDefault(directorId, Set.of()));
+            }
+        }
+        return found.stream()
+                .map(filmId -> new int[]{filmId, popularFilmsIndex.getLikes(filmId)})
+                .sorted(Comparator.<int[]>comparingInt(pair -> -pair[1]).thenComparingInt(pair -> pair[0]))
+                .limit(limit)
+                .map(pair -> pair[0])
+                .toList();
+    }
+
+    public synchronized void putFilm(Film film) {
+        State current = ensureLoaded();
+        current.titles.put(film.getId(), film.getName());
+        current.unlinkDirectors(film.getId());
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> current.linkDirector(film.getId(), director.getId()));
+        }
+    }
+
+    public synchronized void removeFilm(int filmId) {
+        State current = ensureLoaded();
+        current.titles.remove(filmId);
+        current.unlinkDirectors(filmId);
+    }
+
+    public synchronized void putDirector(Director director) {
+        ensureLoaded().directorNames.put(director.getId(), director.getName());
+    }
+
+    public synchronized void removeDirector(int directorId) {
+        State current = ensureLoaded();
+        current.directorNames.remove(directorId);
+        Set<Integer> films = current.filmsByDirector.remove(directorId);
+        if (films != null) {
+            films.forEach(filmId -> Optional.ofNullable(current.directorsByFilm.get(filmId))
+                    .ifPresent(directors -> directors.remove(directorId)));
+        }
+    }
+
+    /**
+     * Полное построение индекса по БД; новый индекс подменяет текущий целиком.
+     */
+    public synchronized void rebuild() {
+        State rebuilt = new State();
+        for (Film film : filmStorage.getFilms()) {
+            rebuilt.titles.put(film.getId(), film.getName());
+            film.getDirectors().forEach(director -> rebuilt.linkDirector(film.getId(), director.getId()));
+        }
+        directorStorage.getDirectors().forEach(director -> rebuilt.directorNames.put(director.getId(), director.getName()));
+        state = rebuilt;
+        log.info("Поисковый индекс построен: {} фильмов, {} режиссёров", rebuilt.titles.texts.size(),
+                rebuilt.directorNames.texts.size());
+    }
+
+    private State ensureLoaded() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    rebuild();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class State {
+        private final Texts titles = new Texts();
+        private final Texts directorNames = new Texts();
+        private final Map<Integer, Set<Integer>> filmsByDirector = new ConcurrentHashMap<>();
+        private final Map<Integer, Set<Integer>> directorsByFilm = new ConcurrentHashMap<>();
+
+        private void linkDirector(int filmId, int directorId) {
+            filmsByDirector.computeIfAbsent(directorId, k -> ConcurrentHashMap.newKeySet()).add(filmId);
+            directorsByFilm.computeIfAbsent(filmId, k -> ConcurrentHashMap.newKeySet()).add(directorId);
+        }
+
+        private void unlinkDirectors(int filmId) {
+            Set<Integer> directors = directorsByFilm.remove(filmId);
+            if (directors != null) {
+                directors.forEach(directorId -> Optional.ofNullable(filmsByDirector.get(directorId))
+                        .ifPresent(films -> films.remove(filmId)));
+            }
+        }
+    }
+
+    /**
+     * Тексты по id и триграммный индекс по ним.
+     */
+    private static class Texts {
+        private final Map<Integer, String> texts = new ConcurrentHashMap<>();
+        private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+        private void put(int id, String text) {
+            remove(id);
+            String normalized = normalize(text);
+            texts.put(id, normalized);
+            grams(normalized).forEach(gram -> postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id));
+        }
+
+        private void remove(int id) {
+            String previous = texts.remove(id);
+            if (previous != null) {
+                grams(previous).forEach(gram -> Optional.ofNullable(postings.get(gram)).ifPresent(ids -> ids.remove(id)));
+            }
+        }
+
+        private List<Integer> find(String needle) {
+            Collection<Integer> candidates = texts.keySet();
+            if (needle.length() >= GRAM) {
+                for (String gram : grams(needle)) {
+                    Set<Integer> ids = postings.getOrDefault(gram, Set.of());
+                    if (ids.size() < candidates.size()) {
+                        candidates = ids;
+                    }
+                }
+            }
+            List<Integer> result = new ArrayList<>();
+            for (Integer id : candidates) {
+                String text = texts.get(id);
+                if (text != null && text.contains(needle)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * «Возможно, вы знакомы»: друзья друзей, ранжированные по числу общих друзей и общих лайков.
+ * Обход второго круга выборочный — у пользователя и у каждого его друга просматривается не больше
+ * заданного числа связей, поэтому время расчёта ограничено независимо от размера списков друзей.
+ * Готовые списки хранятся для недавно запрашивавших пользователей и пересчитываются в фоне.
+ */
+@Slf4j
+@Component
+public class FriendSuggestions {
+    // Столько предложений рассчитывается и хранится для пользователя; больше запросить нельзя
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_FRIENDS_SAMPLED = 200;
+    private static final int MAX_FRIENDS_OF_FRIEND_SAMPLED = 200;
+    // Сколько лучших по общим друзьям кандидатов доранжируется по общим лайкам
+    private static final int CANDIDATES = 100;
+    // Вес одного общего фильма относительно одного общего друга
+    private static final double SHARED_FILM_WEIGHT = 0.25;
+
+    private final SocialGraph socialGraph;
+    private final RecommendationEngine recommendationEngine;
+    private final Map<Integer, int[]> precomputed;
+
+    public FriendSuggestions(SocialGraph socialGraph,
+                             RecommendationEngine recommendationEngine,
+                             @Value("${filmorate.suggestions.max-users:10000}") int maxUsers) {
+        this.socialGraph = socialGraph;
+        this.recommendationEngine = recommendationEngine;
+        this.precomputed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    /**
+     * Id предлагаемых пользователей по убыванию оценки, не больше limit (и не больше {@link #MAX_SUGGESTIONS}).
+     */
+    public List<Integer> getSuggestions(int userId, int limit) {
+        int[] ranked = precomputed.get(userId);
+        if (ranked == null) {
+            ranked = compute(userId);
+            precomputed.put(userId, ranked);
+        }
+        return Arrays.stream(ranked).limit(limit).boxed().toList();
+    }
+
+    /**
+     * Друзья пользователя изменились — его список пересчитается при следующем запросе.
+     */
+    public void invalidate(int userId) {
+        precomputed.remove(userId);
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.suggestions.refresh-interval-ms:60000}",
+            fixedDelayString = "${filmorate.suggestions.refresh-interval-ms:60000}")
+    public void refresh() {
+        List<Integer> users;
+        synchronized (precomputed) {
+            users = new ArrayList<>(precomputed.keySet());
+        }
+        long start = System.nanoTime();
+        // replace, а не put: пользователь мог быть сброшен во время пересчёта
+        users.forEach(userId -> precomputed.replace(userId, compute(userId)));
+        log.debug("Предложения друзей пересчитаны для {} пользователей за {} мс",
+                users.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    int[] compute(int userId) {
+        int[] friends = socialGraph.getFriendIds(userId);
+        Map<Integer, Integer> mutual = new HashMap<>();
+        for (int friendId : SortedIntArrays.sample(friends, MAX_FRIENDS_SAMPLED)) {
+            for (int candidateId : SortedIntArrays.sample(socialGraph.getFriendIds(friendId), MAX_FRIENDS_OF_FRIEND_SAMPLED)) {
+                if (candidateId != userId && Arrays.binarySearch(friends, candidateId) < 0) {
+                    mutual.merge(candidateId, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Integer>> byMutual = new PriorityQueue<>(
+                Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.<Integer, Integer>comparingByKey().reversed()));
+        for (Map.Entry<Integer, Integer> entry : mutual.entrySet()) {
+            byMutual.offer(entry);
+            if (byMutual.size() > CANDIDATES) {
+                byMutual.poll();
+            }
+        }
+
+        int[] liked = recommendationEngine.getLikedFilms(userId);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Candidate.ORDER);
+        for (Map.Entry<Integer, Integer> entry : byMutual) {
+            int sharedFilms = liked.length == 0 ? 0
+                    : SortedIntArrays.intersect(liked, recommendationEngine.getLikedFilms(entry.getKey())).length;
+            best.offer(new Candidate(entry.getKey(), entry.getValue() + SHARED_FILM_WEIGHT * sharedFilms));
+            if (best.size() > MAX_SUGGESTIONS) {
+                best.poll();
+            }
+        }
+        int[] ranked = new int[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().userId();
+        }
+        return ranked;
+    }
+
+    private record Candidate(int userId, double score) {
+        // По возрастанию оценки, при равенстве больший id считается хуже — вершина кучи вытесняется первой
+        private static final Comparator<Candidate> ORDER = Comparator.comparingDouble(Candidate::score)
+                .thenComparing(Comparator.comparingInt(Candidate::userId).reversed());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.feed.FriendsFeed;
+import ru.yandex.practicum.filmorate.review.TopReviewsIndex;
+
+import java.util.List;
+
+/**
+ * Тёплый старт: строит индексы в памяти и заполняет кэши при старте приложения,
+ * чтобы первый запрос после перезапуска не ждал загрузки из БД. Повторный запуск перестраивает всё
+ * заново — так замеры подхватывают данные, загруженные в БД уже после старта.
+ * Данные в БД переживают перезапуск, поэтому самые популярные фильмы сразу кладутся в кэш фильмов.
+ */
+@Slf4j
+@Component
+public class IndexInitializer implements ApplicationRunner {
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final RecommendationEngine recommendationEngine;
+    private final SimilarFilmsIndex similarFilmsIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final SocialGraph socialGraph;
+    private final ReferenceDataCache referenceDataCache;
+    private final CachingFilmStorage cachingFilmStorage;
+    private final FriendsFeed friendsFeed;
+    private final TopReviewsIndex topReviewsIndex;
+    private final int warmUpFilms;
+
+    public IndexInitializer(PopularFilmsIndex popularFilmsIndex,
+                            RecommendationEngine recommendationEngine,
+                            SimilarFilmsIndex similarFilmsIndex,
+                            FilmSearchIndex filmSearchIndex,
+                            SocialGraph socialGraph,
+                            ReferenceDataCache referenceDataCache,
+                            CachingFilmStorage cachingFilmStorage,
+                            FriendsFeed friendsFeed,
+                            TopReviewsIndex topReviewsIndex,
+                            @Value("${filmorate.warm-up.films:1000}") int warmUpFilms) {
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.recommendationEngine = recommendationEngine;
+        this.similarFilmsIndex = similarFilmsIndex;
+        this.filmSearchIndex = filmSearchIndex;
+        this.socialGraph = socialGraph;
+        this.referenceDataCache = referenceDataCache;
+        this.cachingFilmStorage = cachingFilmStorage;
+        this.friendsFeed = friendsFeed;
+        this.topReviewsIndex = topReviewsIndex;
+        this.warmUpFilms = warmUpFilms;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        referenceDataCache.reload();
+        popularFilmsIndex.rebuild();
+        recommendationEngine.rebuild();
+        similarFilmsIndex.rebuild();
+        filmSearchIndex.rebuild();
+        socialGraph.rebuild();
+        friendsFeed.rebuild();
+        topReviewsIndex.rebuild();
+
+        List<Integer> topFilmIds = popularFilmsIndex.getTopFilmIds(warmUpFilms, null, null);
+        if (topFilmIds.isEmpty()) {
+            log.info("Фильмов для прогрева кэша нет");
+        } else {
+            cachingFilmStorage.preload(topFilmIds);
+        }
+        log.info("Тёплый старт завершён за {} мс, в кэш загружено {} популярных фильмов",
+                System.currentTimeMillis() - start, topFilmIds.size());
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив int без упаковки значений в Integer.
+ */
+class IntArrayBuilder {
+    private int[] values;
+    private int size;
+
+    IntArrayBuilder() {
+        this(4);
+    }
+
+    IntArrayBuilder(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    int[] toSortedArray() {
+        int[] result = toArray();
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Рейтинг фильмов по лайкам в памяти: общий и с разбивкой по жанрам и годам выпуска.
+ * Чтение топа не обращается к БД; запись (лайк, изменение фильма) обновляет рейтинг инкрементально.
+ * Лайк, зафиксированный в БД перед перестройкой, перестройка уже посчитала, и его разность пришла бы второй раз.
+ * Поэтому пишущий берёт номер рейтинга ({@link #generation()}) до записи: если к моменту {@link #addLikes}
+ * рейтинг успел перестроиться, разность не прибавляется, а счётчик фильма перечитывается из БД.
+ * Остаётся узкое окно — параллельный лайк того же фильма между записью и перечитыванием может быть учтён
+ * дважды; такое расхождение исправляет {@link #checkConsistency()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularFilmsIndex {
+    private static final Comparator<Entry> BY_LIKES = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingInt(Entry::filmId);
+    private static final int CHECK_DEPTH = 100;
+
+    private final FilmStorage filmStorage;
+    private final LikesStorage likesStorage;
+
+    private volatile Ranking ranking;
+    // Растёт при каждой перестройке рейтинга
+    private volatile long generation;
+
+    public List<Integer> getTopFilmIds(int count, Integer genreId, Integer year) {
+        Ranking current = ensureLoaded();
+        NavigableSet<Entry> source;
+        if (genreId != null) {
+            source = current.byGenre.getOrDefault(genreId, Collections.emptyNavigableSet());
+        } else if (year != null) {
+            source = current.byYear.getOrDefault(year, Collections.emptyNavigableSet());
+        } else {
+            source = current.all;
+        }
+        List<Integer> result = new ArrayList<>(Math.min(count, current.entries.size()));
+        for (Entry entry : source) {
+            if (result.size() >= count) {
+                break;
+            }
+            // Во время обновления фильм ненадолго присутствует дважды — берём только актуальную запись
+            if (current.entries.get(entry.filmId()) != entry) {
+                continue;
+            }
+            if (year != null && entry.year() != year) {
+                continue;
+            }
+            result.add(entry.filmId());
+        }
+        return result;
+    }
+
+    public int getLikes(int filmId) {
+        Entry entry = ensureLoaded().entries.get(filmId);
+        return entry == null ? 0 : entry.likes();
+    }
+
+    public synchronized void putFilm(Film film) {
+        Ranking current = ensureLoaded();
+        Entry previous = current.entries.get(film.getId());
+        current.replace(previous, new Entry(film.getId(), previous == null ? 0 : previous.likes(),
+                film.getReleaseDate().getYear(), genreIds(film.getGenres())));
+    }
+
+    /**
+     * Номер текущего рейтинга; берётся до записи лайков в БД и передаётся в {@link #addLikes}.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Меняет число лайков фильма на delta. Изменение передаётся разностью, а не прочитанным из БД
+     * значением: счётчик, прочитанный до параллельного лайка, мог бы записаться последним.
+     * since — номер рейтинга, взятый до записи; если рейтинг с тех пор перестроен, счётчик перечитывается.
+     */
+    public synchronized void addLikes(int filmId, int delta, long since) {
+        Ranking current = ensureLoaded();
+        Entry previous = current.entries.get(filmId);
+        if (previous == null || delta == 0) {
+            return;
+        }
+        int likes;
+        if (since == generation) {
+            likes = previous.likes() + delta;
+        } else {
+            try {
+                likes = likesStorage.getLikeCountForFilm(filmId);
+            } catch (EmptyResultDataAccessException e) {
+                // Фильм удалён параллельно — removeFilm уберёт его из рейтинга
+                return;
+            }
+        }
+        current.replace(previous, new Entry(filmId, likes, previous.year(), previous.genreIds()));
+    }
+
+    public synchronized void removeFilm(int filmId) {
+        Ranking current = ensureLoaded();
+        Entry previous = current.entries.remove(filmId);
+        if (previous != null) {
+            current.unlink(previous);
+        }
+    }
+
+    /**
+     * Полная перестройка рейтинга по LIKE_LIST. Новый рейтинг собирается отдельно
+     * и подменяет текущий целиком, поэтому читатели не видят частично заполненных наборов.
+     */
+    public synchronized void rebuild() {
+        likesStorage.recountLikes();
+        List<Film> films = filmStorage.getFilms();
+        Map<Integer, Integer> likes = likesStorage.getLikeCounts();
+
+        Ranking rebuilt = new Ranking();
+        for (Film film : films) {
+            Entry entry = new Entry(film.getId(), likes.getOrDefault(film.getId(), 0),
+                    film.getReleaseDate().getYear(), genreIds(film.getGenres()));
+            rebuilt.entries.put(entry.filmId(), entry);
+            rebuilt.link(entry);
+        }
+        ranking = rebuilt;
+        generation++;
+        log.info("Рейтинг популярных фильмов перестроен: {} фильмов", rebuilt.entries.size());
+    }
+
+    /**
+     * Сверяет верхушку рейтинга с выборкой из БД и перестраивает индекс при расхождении.
+     * Идёт под той же блокировкой, что и изменения рейтинга, чтобы не сравнивать его посреди обновления.
+     */
+    @Scheduled(initialDelayString = "${filmorate.popular.check-interval-ms:600000}",
+            fixedDelayString = "${filmorate.popular.check-interval-ms:600000}")
+    public synchronized void checkConsistency() {
+        if (ranking == null) {
+            return;
+        }
+        List<Integer> expected = filmStorage.getTopFilms(CHECK_DEPTH, null, null).stream()
+                .map(Film::getId)
+                .toList();
+        List<Integer> actual = getTopFilmIds(CHECK_DEPTH, null, null);
+        if (!expected.equals(actual)) {
+            log.warn("Рейтинг популярных фильмов разошёлся с БД, выполняется перестроение");
+            rebuild();
+        }
+    }
+
+    private Ranking ensureLoaded() {
+        Ranking current = ranking;
+        if (current == null) {
+            synchronized (this) {
+                if (ranking == null) {
+                    rebuild();
+                }
+                current = ranking;
+            }
+        }
+        return current;
+    }
+
+    private static Set<Integer> genreIds(Set<Genre> genres) {
+        if (genres == null) {
+            return Set.of();
+        }
+        return genres.stream()
+                .map(Genre::getId)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private record Entry(int filmId, int likes, int year, Set<Integer> genreIds) {
+    }
+
+    private static class Ranking {
+        private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>(BY_LIKES);
+        private final Map<Integer, NavigableSet<Entry>> byGenre = new ConcurrentHashMap<>();
+        private final Map<Integer, NavigableSet<Entry>> byYear = new ConcurrentHashMap<>();
+
+        // Новая запись попадает в наборы раньше, чем удаляется старая, чтобы читатель не потерял фильм.
+        // При равном числе лайков записи совпадают по компаратору, поэтому старую приходится убрать первой.
+        private void replace(Entry previous, Entry updated) {
+            if (previous != null && previous.likes() == updated.likes()) {
+                unlink(previous);
+                entries.put(updated.filmId(), updated);
+                link(updated);
+                return;
+            }
+            link(updated);
+            entries.put(updated.filmId(), updated);
+            if (previous != null) {
+                unlink(previous);
+            }
+        }
+
+        private void link(Entry entry) {
+            all.add(entry);
+            byYear.computeIfAbsent(entry.year(), k -> new ConcurrentSkipListSet<>(BY_LIKES)).add(entry);
+            entry.genreIds().forEach(genreId ->
+                    byGenre.computeIfAbsent(genreId, k -> new ConcurrentSkipListSet<>(BY_LIKES)).add(entry));
+        }
+
+        private void unlink(Entry entry) {
+            all.remove(entry);
+            Optional.ofNullable(byYear.get(entry.year())).ifPresent(set -> set.remove(entry));
+            entry.genreIds().forEach(genreId ->
+                    Optional.ofNullable(byGenre.get(genreId)).ifPresent(set -> set.remove(entry)));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Рекомендации по схожести пользователей (коллаборативная фильтрация).
+ * Лайки хранятся в памяти в двух видах: отсортированные id фильмов для каждого пользователя
+ * и отсортированные id пользователей для каждого фильма. Массивы не изменяются на месте —
+ * запись подменяет массив целиком, поэтому чтение идёт без блокировок.
+ * Объём работы на один запрос ограничен константами ниже и не зависит от общего числа лайков:
+ * длинные массивы прореживаются с равным шагом, чтобы выборка покрывала весь диапазон id, а не его край.
+ * Время лайка не хранится, поэтому выборка не отдаёт предпочтения недавним лайкам.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecommendationEngine {
+    private static final int[] EMPTY = new int[0];
+    // Сколько лайков пользователя (и каждого соседа) учитывается
+    private static final int MAX_SCANNED_FILMS = 200;
+    // Сколько поклонников одного фильма просматривается при поиске соседей
+    private static final int MAX_LIKERS_PER_FILM = 500;
+    private static final int NEIGHBOURS = 20;
+
+    private final LikesStorage likesStorage;
+
+    private volatile Likes likes;
+
+    /**
+     * Фильмы, которые понравились ближайшим по мере Жаккара пользователям, но ещё не отмечены текущим.
+     * Вес фильма — сумма схожестей соседей, поставивших ему лайк.
+     */
+    public List<Integer> recommend(int userId, int limit) {
+        Likes current = ensureLoaded();
+        int[] mine = current.byUser.getOrDefault(userId, EMPTY);
+        if (mine.length == 0) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> overlap = new HashMap<>();
+        for (int filmId : SortedIntArrays.sample(mine, MAX_SCANNED_FILMS)) {
+            int[] likers = current.byFilm.getOrDefault(filmId, EMPTY);
+            for (int likerId : SortedIntArrays.sample(likers, MAX_LIKERS_PER_FILM)) {
+                if (likerId != userId) {
+                    overlap.merge(likerId, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Neighbour> nearest = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::similarity));
+        overlap.forEach((otherId, common) -> {
+            int[] theirs = current.byUser.getOrDefault(otherId, EMPTY);
+            double similarity = (double) common / (mine.length + theirs.length - common);
+            nearest.offer(new Neighbour(theirs, similarity));
+            if (nearest.size() > NEIGHBOURS) {
+                nearest.poll();
+            }
+        });
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Neighbour neighbour : nearest) {
+            for (int filmId : SortedIntArrays.sample(neighbour.films(), MAX_SCANNED_FILMS)) {
+                if (Arrays.binarySearch(mine, filmId) < 0) {
+                    scores.merge(filmId, neighbour.similarity(), Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Отсортированные id фильмов, которые понравились пользователю.
+     */
+    public int[] getLikedFilms(int userId) {
+        return ensureLoaded().byUser.getOrDefault(userId, EMPTY).clone();
+    }
+
+    public synchronized void addLike(int userId, int filmId) {
+        Likes current = ensureLoaded();
+        current.byUser.compute(userId, (id, films) -> SortedIntArrays.insert(films, filmId));
+        current.byFilm.compute(filmId, (id, users) -> SortedIntArrays.insert(users, userId));
+    }
+
+    public synchronized void removeLike(int userId, int filmId) {
+        Likes current = ensureLoaded();
+        current.byUser.computeIfPresent(userId, (id, films) -> SortedIntArrays.remove(films, filmId));
+        current.byFilm.computeIfPresent(filmId, (id, users) -> SortedIntArrays.remove(users, userId));
+    }
+
+    public synchronized void removeUser(int userId) {
+        Likes current = ensureLoaded();
+        int[] films = current.byUser.remove(userId);
+        if (films != null) {
+            for (int filmId : films) {
+                current.byFilm.computeIfPresent(filmId, (id, users) -> SortedIntArrays.remove(users, userId));
+            }
+        }
+    }
+
+    public synchronized void removeFilm(int filmId) {
+        Likes current = ensureLoaded();
+        int[] users = current.byFilm.remove(filmId);
+        if (users != null) {
+            for (int userId : users) {
+                current.byUser.computeIfPresent(userId, (id, films) -> SortedIntArrays.remove(films, filmId));
+            }
+        }
+    }
+
+    /**
+     * Полная загрузка лайков из БД. Новые данные собираются отдельно и подменяют текущие целиком.
+     */
+    public synchronized void rebuild() {
+        Map<Integer, IntArrayBuilder> byUser = new HashMap<>();
+        Map<Integer, IntArrayBuilder> byFilm = new HashMap<>();
+        likesStorage.forEachLike((userId, filmId) -> {
+            byUser.computeIfAbsent(userId, k -> new IntArrayBuilder()).add(filmId);
+            byFilm.computeIfAbsent(filmId, k -> new IntArrayBuilder()).add(userId);
+        });
+        Likes rebuilt = new Likes();
+        byUser.forEach((userId, films) -> rebuilt.byUser.put(userId, films.toSortedArray()));
+        byFilm.forEach((filmId, users) -> rebuilt.byFilm.put(filmId, users.toSortedArray()));
+        likes = rebuilt;
+        log.info("Данные для рекомендаций загружены: {} пользователей, {} фильмов",
+                rebuilt.byUser.size(), rebuilt.byFilm.size());
+    }
+
+    private Likes ensureLoaded() {
+        Likes current = likes;
+        if (current == null) {
+            synchronized (this) {
+                if (likes == null) {
+                    rebuild();
+                }
+                current = likes;
+            }
+        }
+        return current;
+    }
+
+    private record Neighbour(int[] films, double similarity) {
+    }
+
+    private static class Likes {
+        private final Map<Integer, int[]> byUser = new ConcurrentHashMap<>();
+        private final Map<Integer, int[]> byFilm = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,195 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Похожие фильмы по совместным лайкам (item-item, косинусная мера).
+ * Для каждого фильма хранится не больше {@link #NEIGHBOURS} соседей в разреженном виде (CSR):
+ * соседи фильма с индексом i лежат в neighbours[offsets[i]..offsets[i + 1]) по убыванию схожести.
+ * Модель пересчитывается по расписанию целиком и подменяется атомарно; запросы её только читают.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SimilarFilmsIndex {
+    static final int NEIGHBOURS = 20;
+    // Сколько лайков пользователя (выборка с равным шагом) участвует в подсчёте пар, иначе один
+    // активный пользователь даёт квадратичное число пар
+    private static final int MAX_USER_LIKES = 500;
+
+    private final LikesStorage likesStorage;
+
+    private volatile Model model;
+
+    /**
+     * Фильмы, похожие на данный, по убыванию схожести.
+     */
+    public List<Integer> getSimilarFilmIds(int filmId, int limit) {
+        Model current = ensureLoaded();
+        int index = Arrays.binarySearch(current.filmIds, filmId);
+        if (index < 0) {
+            return List.of();
+        }
+        List<Integer> result = new ArrayList<>();
+        for (int i = current.offsets[index]; i < current.offsets[index + 1] && result.size() < limit; i++) {
+            result.add(current.neighbours[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Кандидаты для пользователя: соседи понравившихся ему фильмов, взвешенные суммой схожестей.
+     * Уже понравившиеся фильмы (likedFilms, отсортированный массив) исключаются.
+     */
+    public List<Integer> recommend(int[] likedFilms, int limit) {
+        Model current = ensureLoaded();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (int filmId : SortedIntArrays.sample(likedFilms, MAX_USER_LIKES)) {
+            int index = Arrays.binarySearch(current.filmIds, filmId);
+            if (index < 0) {
+                continue;
+            }
+            for (int j = current.offsets[index]; j < current.offsets[index + 1]; j++) {
+                if (Arrays.binarySearch(likedFilms, current.neighbours[j]) < 0) {
+                    scores.merge(current.neighbours[j], (double) current.scores[j], Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.similar.rebuild-interval-ms:300000}",
+            fixedDelayString = "${filmorate.similar.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Model rebuilt = build(likesStorage::forEachLike);
+        model = rebuilt;
+        log.info("Модель похожих фильмов перестроена за {} мс: {} фильмов, {} связей, ~{} КБ",
+                (System.nanoTime() - start) / 1_000_000, rebuilt.filmIds.length, rebuilt.neighbours.length,
+                rebuilt.footprintBytes() / 1024);
+    }
+
+    private Model ensureLoaded() {
+        Model current = model;
+        if (current == null) {
+            synchronized (this) {
+                if (model == null) {
+                    rebuild();
+                }
+                current = model;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Строит модель по всем лайкам (пары пользователь — фильм). Работает только с примитивными массивами.
+     */
+    static Model build(Consumer<BiConsumer<Integer, Integer>> likes) {
+        IntArrayBuilder rawUsers = new IntArrayBuilder(1024);
+        IntArrayBuilder rawFilms = new IntArrayBuilder(1024);
+        likes.accept((userId, filmId) -> {
+            rawUsers.add(userId);
+            rawFilms.add(filmId);
+        });
+        int[] users = rawUsers.toArray();
+        int[] films = rawFilms.toArray();
+        int[] userIds = distinct(users);
+        int[] filmIds = distinct(films);
+        for (int i = 0; i < users.length; i++) {
+            users[i] = Arrays.binarySearch(userIds, users[i]);
+            films[i] = Arrays.binarySearch(filmIds, films[i]);
+        }
+
+        // Фильмы каждого пользователя и пользователи каждого фильма (CSR по плотным индексам)
+        int[][] filmsByUser = group(users, films, userIds.length);
+        int[][] usersByFilm = group(films, users, filmIds.length);
+        for (int u = 0; u < filmsByUser.length; u++) {
+            filmsByUser[u] = SortedIntArrays.sample(filmsByUser[u], MAX_USER_LIKES);
+        }
+
+        int[] offsets = new int[filmIds.length + 1];
+        IntArrayBuilder neighbours = new IntArrayBuilder(filmIds.length * 4);
+        float[] scores = new float[filmIds.length * NEIGHBOURS];
+        int[] coLikes = new int[filmIds.length];
+        IntArrayBuilder touched = new IntArrayBuilder();
+        int[] topIndex = new int[NEIGHBOURS];
+        float[] topScore = new float[NEIGHBOURS];
+        for (int a = 0; a < filmIds.length; a++) {
+            touched.clear();
+            for (int u : usersByFilm[a]) {
+                for (int b : filmsByUser[u]) {
+                    if (b != a && coLikes[b]++ == 0) {
+                        touched.add(b);
+                    }
+                }
+            }
+            int top = 0;
+            for (int t = 0; t < touched.size(); t++) {
+                int b = touched.get(t);
+                float score = (float) (coLikes[b] / Math.sqrt((double) usersByFilm[a].length * usersByFilm[b].length));
+                coLikes[b] = 0;
+                // Вставка в отсортированный по убыванию топ-K (при равенстве — меньший id первым)
+                if (top == NEIGHBOURS && score <= topScore[top - 1]) {
+                    continue;
+                }
+                int pos = top < NEIGHBOURS ? top++ : NEIGHBOURS - 1;
+                while (pos > 0 && (topScore[pos - 1] < score || topScore[pos - 1] == score && topIndex[pos - 1] > b)) {
+                    topScore[pos] = topScore[pos - 1];
+                    topIndex[pos] = topIndex[pos - 1];
+                    pos--;
+                }
+                topScore[pos] = score;
+                topIndex[pos] = b;
+            }
+            offsets[a] = neighbours.size();
+            for (int i = 0; i < top; i++) {
+                scores[neighbours.size()] = topScore[i];
+                neighbours.add(filmIds[topIndex[i]]);
+            }
+        }
+        offsets[filmIds.length] = neighbours.size();
+        int[] neighbourIds = neighbours.toArray();
+        return new Model(filmIds, offsets, neighbourIds, Arrays.copyOf(scores, neighbourIds.length));
+    }
+
+    private static int[] distinct(int[] values) {
+        return Arrays.stream(values).distinct().sorted().toArray();
+    }
+
+    // Группирует values по keys (плотные индексы 0..size-1) сортировкой подсчётом
+    private static int[][] group(int[] keys, int[] values, int size) {
+        int[] counts = new int[size];
+        for (int key : keys) {
+            counts[key]++;
+        }
+        int[][] result = new int[size][];
+        for (int i = 0; i < size; i++) {
+            result[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            result[keys[i]][counts[keys[i]]++] = values[i];
+        }
+        return result;
+    }
+
+    record Model(int[] filmIds, int[] offsets, int[] neighbours, float[] scores) {
+        long footprintBytes() {
+            return 4L * (filmIds.length + offsets.length + neighbours.length + scores.length);
+        }
+    }
+}
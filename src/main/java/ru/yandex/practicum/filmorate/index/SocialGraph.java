@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Граф дружбы (FRIENDS_LIST) в памяти: для каждого пользователя — отсортированные id тех,
+ * кого он добавил в друзья, и тех, кто добавил его. Массивы не изменяются на месте —
+ * запись подменяет массив целиком, поэтому чтение идёт без блокировок.
+ * Граф загружается одним проходом по таблице и дальше поддерживается при добавлении и удалении друзей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SocialGraph {
+    private static final int[] EMPTY = new int[0];
+
+    private final FriendshipStorage friendshipStorage;
+
+    private volatile Graph graph;
+
+    /**
+     * Отсортированные id друзей пользователя (тех, кого он добавил).
+     */
+    public int[] getFriendIds(int userId) {
+        return ensureLoaded().friends.getOrDefault(userId, EMPTY).clone();
+    }
+
+    /**
+     * Отсортированные id подписчиков пользователя (тех, кто добавил его в друзья).
+     */
+    public int[] getFollowerIds(int userId) {
+        return ensureLoaded().followers.getOrDefault(userId, EMPTY).clone();
+    }
+
+    public int getFollowerCount(int userId) {
+        return ensureLoaded().followers.getOrDefault(userId, EMPTY).length;
+    }
+
+    public boolean isFriend(int userId, int friendId) {
+        return Arrays.binarySearch(ensureLoaded().friends.getOrDefault(userId, EMPTY), friendId) >= 0;
+    }
+
+    /**
+     * Общие друзья двух пользователей по возрастанию id.
+     */
+    public int[] getCommonFriendIds(int firstUserId, int secondUserId) {
+        Graph current = ensureLoaded();
+        return SortedIntArrays.intersect(current.friends.getOrDefault(firstUserId, EMPTY),
+                current.friends.getOrDefault(secondUserId, EMPTY));
+    }
+
+    public synchronized void addFriend(int userId, int friendId) {
+        Graph current = ensureLoaded();
+        current.friends.compute(userId, (id, friends) -> SortedIntArrays.insert(friends, friendId));
+        current.followers.compute(friendId, (id, followers) -> SortedIntArrays.insert(followers, userId));
+    }
+
+    public synchronized void deleteFriend(int userId, int friendId) {
+        Graph current = ensureLoaded();
+        current.friends.computeIfPresent(userId, (id, friends) -> SortedIntArrays.remove(friends, friendId));
+        current.followers.computeIfPresent(friendId, (id, followers) -> SortedIntArrays.remove(followers, userId));
+    }
+
+    public synchronized void removeUser(int userId) {
+        Graph current = ensureLoaded();
+        int[] friends = current.friends.remove(userId);
+        if (friends != null) {
+            for (int friendId : friends) {
+                current.followers.computeIfPresent(friendId, (id, followers) -> SortedIntArrays.remove(followers, userId));
+            }
+        }
+        int[] followers = current.followers.remove(userId);
+        if (followers != null) {
+            for (int followerId : followers) {
+                current.friends.computeIfPresent(followerId, (id, ids) -> SortedIntArrays.remove(ids, userId));
+            }
+        }
+    }
+
+    /**
+     * Полная загрузка графа из БД одним проходом. Новый граф собирается отдельно и подменяет текущий целиком.
+     */
+    public synchronized void rebuild() {
+        Map<Integer, IntArrayBuilder> friends = new HashMap<>();
+        Map<Integer, IntArrayBuilder> followers = new HashMap<>();
+        friendshipStorage.forEachFriendship((userId, friendId) -> {
+            friends.computeIfAbsent(userId, k -> new IntArrayBuilder()).add(friendId);
+            followers.computeIfAbsent(friendId, k -> new IntArrayBuilder()).add(userId);
+        });
+        Graph rebuilt = new Graph();
+        friends.forEach((userId, ids) -> rebuilt.friends.put(userId, ids.toSortedArray()));
+        followers.forEach((userId, ids) -> rebuilt.followers.put(userId, ids.toSortedArray()));
+        graph = rebuilt;
+        log.info("Граф дружбы загружен: {} пользователей с друзьями, {} с подписчиками",
+                rebuilt.friends.size(), rebuilt.followers.size());
+    }
+
+    private Graph ensureLoaded() {
+        Graph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                if (graph == null) {
+                    rebuild();
+                }
+                current = graph;
+            }
+        }
+        return current;
+    }
+
+    private static class Graph {
+        private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+        private final Map<Integer, int[]> followers = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+/**
+ * Операции над отсортированными массивами int без повторов. Массивы не изменяются на месте:
+ * запись возвращает новый массив, поэтому его можно отдавать читателям без блокировок.
+ */
+final class SortedIntArrays {
+
+    private SortedIntArrays() {
+    }
+
+    static int[] insert(int[] values, int value) {
+        if (values == null) {
+            return new int[]{value};
+        }
+        int pos = Arrays.binarySearch(values, value);
+        if (pos >= 0) {
+            return values;
+        }
+        int at = -pos - 1;
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(values, at, result, at + 1, values.length - at);
+        return result;
+    }
+
+    // null из compute удаляет ключ из карты
+    static int[] remove(int[] values, int value) {
+        int pos = Arrays.binarySearch(values, value);
+        if (pos < 0) {
+            return values;
+        }
+        if (values.length == 1) {
+            return null;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, pos);
+        System.arraycopy(values, pos + 1, result, pos, values.length - pos - 1);
+        return result;
+    }
+
+    /**
+     * Пересечение слиянием; если один массив много короче другого — двоичным поиском его элементов в длинном.
+     */
+    static int[] intersect(int[] first, int[] second) {
+        if (first.length > second.length) {
+            return intersect(second, first);
+        }
+        int[] result = new int[first.length];
+        int size = 0;
+        if ((long) first.length * 32 < second.length) {
+            int from = 0;
+            for (int value : first) {
+                int pos = Arrays.binarySearch(second, from, second.length, value);
+                if (pos >= 0) {
+                    result[size++] = value;
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < first.length && j < second.length) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[size++] = first[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Не больше max элементов, взятых с равным шагом по всему массиву; порядок сохраняется.
+     * Шаг вместо случайной выборки — чтобы результат не зависел от случайности.
+     */
+    static int[] sample(int[] values, int max) {
+        if (values.length <= max) {
+            return values;
+        }
+        int[] sampled = new int[max];
+        double step = (double) values.length / max;
+        for (int i = 0; i < max; i++) {
+            sampled[i] = values[(int) (i * step)];
+        }
+        return sampled;
+    }
+}
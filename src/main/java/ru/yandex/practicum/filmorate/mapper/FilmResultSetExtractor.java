@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.mapper;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Собирает полностью заполненные фильмы из строк запроса FILMS LEFT JOIN жанры LEFT JOIN режиссёры.
+ * Порядок фильмов сохраняется таким, каким его вернула БД; жанры и режиссёры сортируются по id.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmResultSetExtractor implements ResultSetExtractor<List<Film>> {
+    private final FilmRowMapper filmRowMapper;
+
+    @Override
+    public List<Film> extractData(ResultSet rs) throws SQLException {
+        Map<Integer, Film> films = new LinkedHashMap<>();
+        Map<Integer, Map<Integer, Genre>> genres = new HashMap<>();
+        Map<Integer, Map<Integer, Director>> directors = new HashMap<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            int filmId = rs.getInt("FILM_ID");
+            if (!films.containsKey(filmId)) {
+                films.put(filmId, filmRowMapper.mapRow(rs, rowNum));
+            }
+            int genreId = rs.getInt("G_ID");
+            if (!rs.wasNull()) {
+                genres.computeIfAbsent(filmId, k -> new TreeMap<>())
+                        .putIfAbsent(genreId, new Genre(genreId, rs.getString("GENRE_NAME")));
+            }
+            int directorId = rs.getInt("D_ID");
+            if (!rs.wasNull()) {
+                directors.computeIfAbsent(filmId, k -> new TreeMap<>())
+                        .putIfAbsent(directorId, new Director(directorId, rs.getString("DIRECTOR_NAME")));
+            }
+            rowNum++;
+        }
+        films.values().forEach(film -> {
+            film.setGenres(new LinkedHashSet<>(genres.getOrDefault(film.getId(), Map.of()).values()));
+            film.setDirectors(new LinkedHashSet<>(directors.getOrDefault(film.getId(), Map.of()).values()));
+        });
+        return new ArrayList<>(films.values());
+    }
+}
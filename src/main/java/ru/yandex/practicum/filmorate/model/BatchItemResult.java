@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат элемента пакета; index — позиция элемента в запросе, error заполнен для NOT_FOUND и INVALID.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private Status status;
+    private String error;
+
+    public enum Status {
+        // Изменение записано
+        APPLIED,
+        // Лайк или друг уже были (или уже отсутствовали) — записывать нечего
+        UNCHANGED,
+        // Фильм или пользователь не существуют
+        NOT_FOUND,
+        // Элемент не заполнен или операция не ADD/REMOVE
+        INVALID
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+
+/**
+ * Элемент пакета дружбы: пользователь добавляет (ADD) или удаляет (REMOVE) друга.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FriendBatchItem {
+    private Integer userId;
+    private Integer friendId;
+    private EventOperation operation;
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+
+/**
+ * Элемент пакета лайков: пользователь ставит (ADD) или снимает (REMOVE) лайк фильму.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeBatchItem {
+    private Integer filmId;
+    private Integer userId;
+    private EventOperation operation;
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.review;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Голоса за отзывы. Сам голос сразу пишется в REVIEW_LIKES, а изменение полезности копится
+ * в счётчике отзыва (LongAdder — параллельные голоса не спорят за одну ячейку) и раз в flush-interval-ms
+ * переносится в REVIEWS.USEFUL одним пакетом, так что строка популярного отзыва не блокируется на каждый голос.
+ * Чтение отзыва учитывает ещё не сброшенные изменения, а рейтинг отзывов {@link TopReviewsIndex}
+ * обновляется сразу при голосе.
+ * Сверка раз в reconcile-interval-ms пересчитывает USEFUL по REVIEW_LIKES — это исправляет, например,
+ * голоса, удалённые каскадом вместе с пользователем.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewVotes implements MeterBinder {
+    private final ReviewStorage reviewStorage;
+    private final TopReviewsIndex topReviewsIndex;
+
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+    // Голос (запись в REVIEW_LIKES и счётчик) идёт под общей блокировкой, сверка — под исключительной:
+    // иначе сверка могла бы учесть голос, изменение от которого ещё лежит в счётчике
+    private final ReadWriteLock votes = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong reconciled = new AtomicLong();
+
+    public void like(int reviewId, int userId) {
+        vote(reviewId, () -> reviewStorage.setVote(reviewId, userId, true));
+    }
+
+    public void dislike(int reviewId, int userId) {
+        vote(reviewId, () -> reviewStorage.setVote(reviewId, userId, false));
+    }
+
+    public void removeLike(int reviewId, int userId) {
+        vote(reviewId, () -> reviewStorage.removeVote(reviewId, userId, true));
+    }
+
+    public void removeDislike(int reviewId, int userId) {
+        vote(reviewId, () -> reviewStorage.removeVote(reviewId, userId, false));
+    }
+
+    /**
+     * Отзыв с учётом ещё не сброшенных голосов.
+     */
+    public Review withPending(Review review) {
+        LongAdder delta = pending.get(review.getReviewId());
+        if (delta != null) {
+            review.setUseful(review.getUseful() + (int) delta.sum());
+        }
+        return review;
+    }
+
+    /**
+     * Отзыв удалён: его счётчик больше не нужен.
+     */
+    public void forget(int reviewId) {
+        pending.remove(reviewId);
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.reviews.flush-interval-ms:1000}",
+            fixedDelayString = "${filmorate.reviews.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Integer, Long> deltas = new HashMap<>();
+            pending.forEach((reviewId, delta) -> {
+                long value = delta.sumThenReset();
+                if (value != 0) {
+                    deltas.put(reviewId, value);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                reviewStorage.addUseful(deltas);
+                flushed.addAndGet(deltas.size());
+            } catch (DataAccessException e) {
+                // Изменения возвращаются в счётчики и уйдут следующим сбросом
+                deltas.forEach((reviewId, value) -> pending.computeIfAbsent(reviewId, k -> new LongAdder()).add(value));
+                log.warn("Не удалось сохранить полезность {} отзывов: {}", deltas.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.reviews.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.reviews.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        votes.writeLock().lock();
+        try {
+            flush();
+            int fixed = reviewStorage.reconcileUseful();
+            reconciled.addAndGet(fixed);
+            if (fixed > 0) {
+                log.warn("Полезность {} отзывов разошлась с голосами и пересчитана", fixed);
+                topReviewsIndex.rebuild();
+            }
+        } finally {
+            votes.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.reviews.votes.pending", pending,
+                        map -> map.values().stream().filter(delta -> delta.sum() != 0).count())
+                .register(registry);
+        FunctionCounter.builder("filmorate.reviews.votes.flushed", flushed, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("filmorate.reviews.votes.reconciled", reconciled, AtomicLong::get)
+                .register(registry);
+    }
+
+    private void vote(int reviewId, VoteStatement statement) {
+        votes.readLock().lock();
+        try {
+            int delta = statement.execute();
+            if (delta != 0) {
+                topReviewsIndex.addUseful(reviewId, delta);
+                pending.computeIfAbsent(reviewId, k -> new LongAdder()).add(delta);
+            }
+        } finally {
+            votes.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface VoteStatement {
+        int execute();
+    }
+}
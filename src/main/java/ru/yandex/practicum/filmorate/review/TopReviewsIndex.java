@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.review;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Отзывы, упорядоченные по полезности: общий порядок и порядок внутри каждого фильма.
+ * Полезность здесь текущая — с учётом голосов, ещё не сброшенных в REVIEWS.USEFUL,
+ * поэтому список отзывов читается без сортировки в БД и без ожидания сброса.
+ * При равной полезности отзывы идут по возрастанию id, что даёт однозначный курсор для постраничной выборки.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TopReviewsIndex {
+    private static final Comparator<Entry> BY_USEFUL = Comparator.comparingInt(Entry::useful).reversed()
+            .thenComparingInt(Entry::reviewId);
+
+    private final ReviewStorage reviewStorage;
+
+    private volatile Ranking ranking;
+
+    /**
+     * Позиция отзыва в порядке по полезности.
+     */
+    public record Entry(int reviewId, int filmId, int useful) {
+    }
+
+    /**
+     * До count отзывов фильма (или всех фильмов, если filmId равен null), идущих после отзыва
+     * afterId с полезностью afterUseful; без курсора — с начала.
+     */
+    public List<Entry> getTop(Integer filmId, int count, Integer afterUseful, Integer afterId) {
+        Ranking current = ensureLoaded();
+        NavigableSet<Entry> source = filmId == null
+                ? current.all
+                : current.byFilm.getOrDefault(filmId, Collections.emptyNavigableSet());
+        if (afterId != null) {
+            source = source.tailSet(new Entry(afterId, 0, afterUseful), false);
+        }
+        List<Entry> result = new ArrayList<>(Math.min(count, current.entries.size()));
+        for (Entry entry : source) {
+            if (result.size() >= count) {
+                break;
+            }
+            // Во время обновления отзыв ненадолго присутствует дважды — берём только актуальную запись
+            if (current.entries.get(entry.reviewId()) == entry) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void putReview(int reviewId, int filmId, int useful) {
+        ensureLoaded().replace(new Entry(reviewId, filmId, useful));
+    }
+
+    public synchronized void addUseful(int reviewId, int delta) {
+        Ranking current = ensureLoaded();
+        Entry previous = current.entries.get(reviewId);
+        if (previous != null && delta != 0) {
+            current.replace(new Entry(reviewId, previous.filmId(), previous.useful() + delta));
+        }
+    }
+
+    public synchronized void removeReview(int reviewId) {
+        Ranking current = ensureLoaded();
+        Entry previous = current.entries.remove(reviewId);
+        if (previous != null) {
+            current.unlink(previous);
+        }
+    }
+
+    /**
+     * Полная перестройка по REVIEWS.USEFUL. Вызывается, когда в БД нет несброшенных голосов:
+     * при старте и при сверке полезности.
+     */
+    public synchronized void rebuild() {
+        Ranking rebuilt = new Ranking();
+        reviewStorage.forEachRank((reviewId, filmId, useful) -> {
+            Entry entry = new Entry(reviewId, filmId, useful);
+            rebuilt.entries.put(reviewId, entry);
+            rebuilt.link(entry);
+        });
+        ranking = rebuilt;
+        log.info("Рейтинг отзывов перестроен: {} отзывов", rebuilt.entries.size());
+    }
+
+    private Ranking ensureLoaded() {
+        Ranking current = ranking;
+        if (current == null) {
+            synchronized (this) {
+                if (ranking == null) {
+                    rebuild();
+                }
+                current = ranking;
+            }
+        }
+        return current;
+    }
+
+    private static class Ranking {
+        private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>(BY_USEFUL);
+        private final Map<Integer, NavigableSet<Entry>> byFilm = new ConcurrentHashMap<>();
+
+        // Новая запись попадает в наборы раньше, чем удаляется старая, чтобы читатель не потерял отзыв.
+        // При равной полезности записи совпадают по компаратору, поэтому старую приходится убрать первой.
+        private void replace(Entry updated) {
+            Entry previous = entries.get(updated.reviewId());
+            if (previous != null && previous.useful() == updated.useful()) {
+                unlink(previous);
+                entries.put(updated.reviewId(), updated);
+                link(updated);
+                return;
+            }
+            link(updated);
+            entries.put(updated.reviewId(), updated);
+            if (previous != null) {
+                unlink(previous);
+            }
+        }
+
+        private void link(Entry entry) {
+            all.add(entry);
+            byFilm.computeIfAbsent(entry.filmId(), k -> new ConcurrentSkipListSet<>(BY_USEFUL)).add(entry);
+        }
+
+        private void unlink(Entry entry) {
+            all.remove(entry);
+            NavigableSet<Entry> film = byFilm.get(entry.filmId());
+            if (film != null) {
+                film.remove(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+import ru.yandex.practicum.filmorate.dal.status.EventType;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.feed.FriendsFeed;
+import ru.yandex.practicum.filmorate.index.FriendSuggestions;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Пакетные лайки и дружба — для клиентов, которые досылают накопленные офлайн действия.
+ * Все упомянутые фильмы и пользователи проверяются парой запросов IN, изменения пишутся пакетами JDBC
+ * в одной транзакции вместе с событиями ленты, а ответ содержит результат каждого элемента:
+ * ошибка в одном элементе не отменяет остальные. Событие пишется только для действительно изменённой записи,
+ * поэтому повторно досланное действие ленту не засоряет.
+ */
+@Slf4j
+@Service
+public class BatchService {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikesStorage likesStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final EventStorage eventStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final RecommendationEngine recommendationEngine;
+    private final SocialGraph socialGraph;
+    private final FriendsFeed friendsFeed;
+    private final FriendSuggestions friendSuggestions;
+    private final ConcurrentLookups concurrentLookups;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+
+    public BatchService(FilmStorage filmStorage,
+                        UserStorage userStorage,
+                        LikesStorage likesStorage,
+                        FriendshipStorage friendshipStorage,
+                        EventStorage eventStorage,
+                        PopularFilmsIndex popularFilmsIndex,
+                        RecommendationEngine recommendationEngine,
+                        SocialGraph socialGraph,
+                        FriendsFeed friendsFeed,
+                        FriendSuggestions friendSuggestions,
+                        ConcurrentLookups concurrentLookups,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${filmorate.batch.max-items:1000}") int maxItems) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likesStorage = likesStorage;
+        this.friendshipStorage = friendshipStorage;
+        this.eventStorage = eventStorage;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.recommendationEngine = recommendationEngine;
+        this.socialGraph = socialGraph;
+        this.friendsFeed = friendsFeed;
+        this.friendSuggestions = friendSuggestions;
+        this.concurrentLookups = concurrentLookups;
+        this.transactionTemplate = transactionTemplate;
+        this.maxItems = maxItems;
+    }
+
+    public List<BatchItemResult> applyLikes(List<LikeBatchItem> items) {
+        checkSize(items);
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        Set<Integer> filmIds = new HashSet<>();
+        Set<Integer> userIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            LikeBatchItem item = items.get(i);
+            if (item == null || item.getFilmId() == null || item.getUserId() == null) {
+                results[i] = invalid(i, "Не указаны filmId и userId");
+            } else if (!isAddOrRemove(item.getOperation())) {
+                results[i] = invalid(i, "Операция должна быть ADD или REMOVE");
+            } else {
+                filmIds.add(item.getFilmId());
+                userIds.add(item.getUserId());
+            }
+        }
+        Set<Integer> existingFilms;
+        Set<Integer> existingUsers;
+        try (ConcurrentLookups.Scope scope = concurrentLookups.open()) {
+            Supplier<Set<Integer>> filmsLookup = scope.fork(() -> filmStorage.getExistingIds(filmIds));
+            Supplier<Set<Integer>> usersLookup = scope.fork(() -> userStorage.getExistingIds(userIds));
+            scope.join();
+            existingFilms = filmsLookup.get();
+            existingUsers = usersLookup.get();
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            LikeBatchItem item = items.get(i);
+            if (!existingFilms.contains(item.getFilmId())) {
+                results[i] = notFound(i, "Фильм с id " + item.getFilmId() + " не найден");
+            } else if (!existingUsers.contains(item.getUserId())) {
+                results[i] = notFound(i, "Пользователь с id " + item.getUserId() + " не найден");
+            } else {
+                indexes.add(i);
+                pairs.add(new int[]{item.getFilmId(), item.getUserId()});
+            }
+        }
+        boolean[] add = operations(indexes, i -> items.get(i).getOperation());
+        long generation = popularFilmsIndex.generation();
+        boolean[] changed = transactionTemplate.execute(status -> {
+            boolean[] applied = likesStorage.applyLikes(pairs, add);
+            eventStorage.addEvents(events(pairs, add, applied, EventType.LIKE));
+            return applied;
+        });
+
+        Map<Integer, Integer> likeDeltas = new HashMap<>();
+        for (int j = 0; j < indexes.size(); j++) {
+            int[] pair = pairs.get(j);
+            if (changed[j]) {
+                likeDeltas.merge(pair[0], add[j] ? 1 : -1, Integer::sum);
+                if (add[j]) {
+                    recommendationEngine.addLike(pair[1], pair[0]);
+                } else {
+                    recommendationEngine.removeLike(pair[1], pair[0]);
+                }
+            }
+            results[indexes.get(j)] = applied(indexes.get(j), changed[j]);
+        }
+        likeDeltas.forEach((filmId, delta) -> popularFilmsIndex.addLikes(filmId, delta, generation));
+        log.info("Пакет лайков: {} элементов, изменено {}", items.size(), count(changed));
+        return List.of(results);
+    }
+
+    public List<BatchItemResult> applyFriendships(List<FriendBatchItem> items) {
+        checkSize(items);
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        Set<Integer> userIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            FriendBatchItem item = items.get(i);
+            if (item == null || item.getUserId() == null || item.getFriendId() == null) {
+                results[i] = invalid(i, "Не указаны userId и friendId");
+            } else if (!isAddOrRemove(item.getOperation())) {
+                results[i] = invalid(i, "Операция должна быть ADD или REMOVE");
+            } else {
+                userIds.add(item.getUserId());
+                userIds.add(item.getFriendId());
+            }
+        }
+        Set<Integer> existingUsers = userStorage.getExistingIds(userIds);
+
+        List<Integer> indexes = new ArrayList<>();
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            FriendBatchItem item = items.get(i);
+            if (!existingUsers.contains(item.getUserId())) {
+                results[i] = notFound(i, "Пользователь с id " + item.getUserId() + " не найден");
+            } else if (!existingUsers.contains(item.getFriendId())) {
+                results[i] = notFound(i, "Пользователь с id " + item.getFriendId() + " не найден");
+            } else {
+                indexes.add(i);
+                pairs.add(new int[]{item.getUserId(), item.getFriendId()});
+            }
+        }
+        boolean[] add = operations(indexes, i -> items.get(i).getOperation());
+        boolean[] changed = transactionTemplate.execute(status -> {
+            boolean[] applied = friendshipStorage.applyFriendships(pairs, add);
+            eventStorage.addEvents(events(pairs, add, applied, EventType.FRIEND));
+            return applied;
+        });
+
+        Set<Integer> changedUsers = new HashSet<>();
+        for (int j = 0; j < indexes.size(); j++) {
+            int[] pair = pairs.get(j);
+            if (changed[j]) {
+                changedUsers.add(pair[0]);
+                if (add[j]) {
+                    socialGraph.addFriend(pair[0], pair[1]);
+                } else {
+                    socialGraph.deleteFriend(pair[0], pair[1]);
+                }
+            }
+            results[indexes.get(j)] = applied(indexes.get(j), changed[j]);
+        }
+        for (int userId : changedUsers) {
+            friendsFeed.onFollowChanged(userId);
+            friendSuggestions.invalidate(userId);
+        }
+        log.info("Пакет дружбы: {} элементов, изменено {}", items.size(), count(changed));
+        return List.of(results);
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("Пакет не должен быть пустым");
+        }
+        if (items.size() > maxItems) {
+            throw new ValidationException("В пакете не больше " + maxItems + " элементов");
+        }
+    }
+
+    private static boolean isAddOrRemove(EventOperation operation) {
+        return operation == EventOperation.ADD || operation == EventOperation.REMOVE;
+    }
+
+    private static boolean[] operations(List<Integer> indexes, IntFunction<EventOperation> operation) {
+        boolean[] add = new boolean[indexes.size()];
+        for (int j = 0; j < add.length; j++) {
+            add[j] = operation.apply(indexes.get(j)) == EventOperation.ADD;
+        }
+        return add;
+    }
+
+    // Пара лайка — (фильм, пользователь), пара дружбы — (пользователь, друг)
+    private static List<Event> events(List<int[]> pairs, boolean[] add, boolean[] changed, EventType type) {
+        int user = type == EventType.LIKE ? 1 : 0;
+        long now = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>();
+        for (int j = 0; j < changed.length; j++) {
+            if (changed[j]) {
+                int[] pair = pairs.get(j);
+                events.add(Event.builder()
+                        .timestamp(now)
+                        .userId(pair[user])
+                        .eventType(type.toString())
+                        .operation((add[j] ? EventOperation.ADD : EventOperation.REMOVE).toString())
+                        .entityId(pair[1 - user])
+                        .build());
+            }
+        }
+        return events;
+    }
+
+    private static int count(boolean[] changed) {
+        int count = 0;
+        for (boolean value : changed) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static BatchItemResult applied(int index, boolean changed) {
+        return new BatchItemResult(index, changed ? BatchItemResult.Status.APPLIED : BatchItemResult.Status.UNCHANGED,
+                null);
+    }
+
+    private static BatchItemResult invalid(int index, String error) {
+        return new BatchItemResult(index, BatchItemResult.Status.INVALID, error);
+    }
+
+    private static BatchItemResult notFound(int index, String error) {
+        return new BatchItemResult(index, BatchItemResult.Status.NOT_FOUND, error);
+    }
+}
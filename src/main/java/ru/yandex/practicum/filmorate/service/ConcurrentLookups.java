@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Независимые проверки и выборки одного запроса (существование пользователя, загрузка фильма и т.п.).
+ * В режиме filmorate.concurrent-lookups каждая выборка идёт в своём виртуальном потоке, а область
+ * ждёт их все: первая по порядку ошибка отменяет остальные и пробрасывается как есть, поэтому
+ * обработчик ошибок видит то же исключение, что и при последовательном выполнении.
+ * Без режима выборки выполняются сразу в вызывающем потоке.
+ */
+@Component
+public class ConcurrentLookups {
+    private final ExecutorService executor;
+
+    public ConcurrentLookups(@Value("${filmorate.concurrent-lookups:false}") boolean concurrent) {
+        this.executor = concurrent ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    /**
+     * Область выборок: fork запускает выборку, join дожидается всех. Результаты доступны после join.
+     */
+    public class Scope implements AutoCloseable {
+        private final List<Future<?>> futures = new ArrayList<>();
+        private boolean joined;
+
+        public <T> Supplier<T> fork(Supplier<T> lookup) {
+            if (executor == null) {
+                T result = lookup.get();
+                return () -> result;
+            }
+            Future<T> future = executor.submit(lookup::get);
+            futures.add(future);
+            return () -> {
+                if (!joined) {
+                    throw new IllegalStateException("Результат выборки доступен только после join");
+                }
+                return future.resultNow();
+            };
+        }
+
+        public void join() {
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        cancelFrom(i + 1);
+                        throw unwrap(e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelFrom(0);
+                throw new CancellationException("Выборка прервана");
+            }
+            joined = true;
+        }
+
+        @Override
+        public void close() {
+            if (!joined) {
+                cancelFrom(0);
+            }
+        }
+
+        private void cancelFrom(int index) {
+            for (int i = index; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+            }
+        }
+
+        private static RuntimeException unwrap(Throwable cause) {
+            if (cause instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(cause);
+        }
+    }
+}
@@ -4,42 +4,53 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
+import ru.yandex.practicum.filmorate.cache.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 
-import java.util.Comparator;
-import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Validated
 @Service
 @RequiredArgsConstructor
 public class DirectorService {
     private final DirectorStorage directorStorage;
+    private final ReferenceDataCache referenceDataCache;
+    private final CachingFilmStorage cachingFilmStorage;
+    private final FilmSearchIndex filmSearchIndex;
 
     public Set<Director> getDirectors() {
-        return directorStorage.getDirectors().stream()
-                .sorted(Comparator.comparing(Director::getId))
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return referenceDataCache.getDirectors();
     }
 
     public Director getDirectorById(int id) {
-        return directorStorage.getDirectorById(id);
+        return referenceDataCache.getDirectorById(id);
     }
 
     public Director createDirector(@Valid Director director) {
-        return directorStorage.createDirector(director);
+        Director created = directorStorage.createDirector(director);
+        referenceDataCache.refreshDirectors();
+        filmSearchIndex.putDirector(created);
+        return created;
     }
 
     public Director updateDirector(@Valid Director director) {
-        directorStorage.getDirectorById(director.getId());
-        return directorStorage.updateDirector(director);
+        referenceDataCache.getDirectorById(director.getId());
+        Director updated = directorStorage.updateDirector(director);
+        referenceDataCache.refreshDirectors();
+        // Имя режиссёра входит в закэшированные фильмы
+        cachingFilmStorage.evictByDirector(director.getId());
+        filmSearchIndex.putDirector(updated);
+        return updated;
     }
 
     public void deleteDirectorById(int id) {
-        directorStorage.getDirectorById(id);
+        referenceDataCache.getDirectorById(id);
         directorStorage.deleteDirectorById(id);
+        referenceDataCache.refreshDirectors();
+        cachingFilmStorage.evictByDirector(id);
+        filmSearchIndex.removeDirector(id);
     }
 }
-
@@ -4,46 +4,53 @@ import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.dal.status.EventOperation;
 import ru.yandex.practicum.filmorate.dal.status.EventType;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
-import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.enums.SortedBy;
 import ru.yandex.practicum.filmorate.storage.DirectorStorage;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.LikesStorage;
-import ru.yandex.practicum.filmorate.storage.RatingStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmService {
+    private static final int MAX_RECOMMENDATIONS = 100;
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
     private final GenreStorage genreStorage;
     private final LikesStorage likesStorage;
     private final DirectorStorage directorStorage;
-    private final RatingStorage ratingStorage;
+    private final ReferenceDataCache referenceDataCache;
     private final EventStorage eventStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final RecommendationEngine recommendationEngine;
+    private final SimilarFilmsIndex similarFilmsIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final ConcurrentLookups concurrentLookups;
 
     public Film createFilm(Film film) {
-        if (!ratingStorage.ratingExists(film.getMpa().getId())) {
-            throw new NotFoundException("Рейтинг МПА с ID " + film.getMpa().getId() + " не найден");
-        }
+        // Справочники проверяются по кэшу, без обращений к БД
+        referenceDataCache.getRatingById(film.getMpa().getId());
         if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            film.getGenres().forEach(g -> genreStorage.getGenreById(g.getId()));
+            film.getGenres().forEach(g -> referenceDataCache.getGenreById(g.getId()));
         }
         if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
-            film.getDirectors().forEach(d -> directorStorage.getDirectorById(d.getId()));
+            film.getDirectors().forEach(d -> referenceDataCache.getDirectorById(d.getId()));
         }
         Film createdFilm = filmStorage.createFilm(film);
 
@@ -54,22 +61,16 @@ public class FilmService {
         if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
             directorStorage.createDirectorsForFilmById(createdFilm.getId(), film.getDirectors().stream().toList());
         }
-        // Получаем фильм с JOIN для рейтинга
+        // Получаем фильм вместе с рейтингом, жанрами и режиссёрами одним запросом
         createdFilm = filmStorage.getFilmById(createdFilm.getId());
-        // Обогащаем фильм жанрами и режиссёрами через единоразовую выборку по ID
-        createdFilm.setGenres(genreStorage.getGenresByFilmId(createdFilm.getId())
-                .stream().sorted(Comparator.comparing(Genre::getId))
-                .collect(Collectors.toCollection(LinkedHashSet::new)));
-        createdFilm.setDirectors(directorStorage.getDirectorsFilmById(createdFilm.getId()));
+        popularFilmsIndex.putFilm(createdFilm);
+        filmSearchIndex.putFilm(createdFilm);
         return createdFilm;
     }
 
     public Film updateFilm(Film film) {
         filmStorage.getFilmById(film.getId());
-
-        if (!ratingStorage.ratingExists(film.getMpa().getId())) {
-            throw new NotFoundException("Рейтинг МПА с ID " + film.getMpa().getId() + " не найден");
-        }
+        referenceDataCache.getRatingById(film.getMpa().getId());
         // Обновляем жанры: сначала удаляем, затем создаем, затем обогащаем
         genreStorage.deleteGenreForFilmById(film.getId());
         if (film.getGenres() != null && !film.getGenres().isEmpty()) {
@@ -86,175 +87,163 @@ public class FilmService {
         }
         // Обновляем основные данные фильма
         filmStorage.updateFilm(film);
-        // Получаем обновленный фильм с JOIN для рейтинга
+        // Получаем обновленный фильм вместе с рейтингом, жанрами и режиссёрами одним запросом
         Film updatedFilm = filmStorage.getFilmById(film.getId());
-        // Обогащаем фильм жанрами и режиссёрами
-        updatedFilm.setGenres(genreStorage.getGenresByFilmId(updatedFilm.getId())
-                .stream().sorted(Comparator.comparing(Genre::getId))
-                .collect(Collectors.toCollection(LinkedHashSet::new)));
-        updatedFilm.setDirectors(directorStorage.getDirectorsFilmById(updatedFilm.getId()));
+        popularFilmsIndex.putFilm(updatedFilm);
+        filmSearchIndex.putFilm(updatedFilm);
         return updatedFilm;
     }
 
     public Set<Film> getFilms() {
-        List<Film> films = filmStorage.getFilms();
-        films = getAttributesForFilm(films);
-        return films.stream()
-                .sorted(Comparator.comparing(Film::getId))
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new LinkedHashSet<>(filmStorage.getFilms());
+    }
+
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        Paging.check(afterId, limit);
+        return filmStorage.getFilmsPage(afterId, limit);
     }
 
     public Film getFilmById(int id) {
         Film film = filmStorage.getFilmById(id);
-        film.setGenres(genreStorage.getGenresByFilmId(film.getId())
-                .stream().sorted(Comparator.comparing(Genre::getId))
-                .collect(Collectors.toCollection(LinkedHashSet::new)));
-        film.setDirectors(directorStorage.getDirectorsFilmById(film.getId()));
         log.debug("Получен фильм: {}", film);
         return film;
     }
 
     public void deleteFilm(int id) {
         filmStorage.deleteFilm(id);
+        popularFilmsIndex.removeFilm(id);
+        recommendationEngine.removeFilm(id);
+        filmSearchIndex.removeFilm(id);
         log.info("Удалён фильм с id: {}", id);
     }
 
     public Set<Film> getTopFilms(int count, Integer genreId, Integer year) {
-        List<Film> films = filmStorage.getFilms();
-        films = getAttributesForFilm(films);
-        if (genreId != null) {
-            films = films.stream()
-                    .filter(film -> film.getGenres().stream().anyMatch(genre -> genre.getId().equals(genreId)))
-                    .collect(Collectors.toList());
-        }
-        if (year != null) {
-            films = films.stream()
-                    .filter(film -> film.getReleaseDate().getYear() == year)
-                    .collect(Collectors.toList());
-        }
-        films.sort((f1, f2) -> Integer.compare(
-                likesStorage.getLikeCountForFilm(f2.getId()),
-                likesStorage.getLikeCountForFilm(f1.getId())
-        ));
-        Set<Film> topFilms = films.stream()
-                .limit(count)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Film> topFilms = new LinkedHashSet<>(getFilmsInOrder(popularFilmsIndex.getTopFilmIds(count, genreId, year)));
         log.debug("Получены топ-{} фильмов по лайкам с genreId={} и year={}: {}", count, genreId, year, topFilms);
         return topFilms;
     }
 
     public List<Film> getCommonFilms(int userId, int friendId) {
-        userStorage.getUserById(userId);
-        userStorage.getUserById(friendId);
-        Set<Integer> userLikedFilms = likesStorage.getLikedFilmsByUser(userId);
-        Set<Integer> friendLikedFilms = likesStorage.getLikedFilmsByUser(friendId);
-        userLikedFilms.retainAll(friendLikedFilms);
-        if (userLikedFilms.isEmpty()) {
+        List<Film> commonFilms;
+        try (ConcurrentLookups.Scope scope = concurrentLookups.open()) {
+            scope.fork(() -> userStorage.getUserById(userId));
+            scope.fork(() -> userStorage.getUserById(friendId));
+            Supplier<List<Film>> films = scope.fork(() -> filmStorage.getCommonFilms(userId, friendId));
+            scope.join();
+            commonFilms = films.get();
+        }
+        if (commonFilms.isEmpty()) {
             log.info("Нет общих фильмов для пользователей {} и {}", userId, friendId);
-            return Collections.emptyList();
         }
-        List<Film> commonFilms = userLikedFilms.stream()
-                .map(filmStorage::getFilmById)
-                .toList();
-        List<Film> sortedFilms = commonFilms.stream()
-                .sorted((f1, f2) -> Integer.compare(
-                        likesStorage.getLikeCountForFilm(f2.getId()),
-                        likesStorage.getLikeCountForFilm(f1.getId())
-                ))
-                .collect(Collectors.toList());
-        log.debug("Получены общие фильмы для пользователей {} и {}: {}", userId, friendId, sortedFilms);
-        return getAttributesForFilm(sortedFilms);
+        log.debug("Получены общие фильмы для пользователей {} и {}: {}", userId, friendId, commonFilms);
+        return commonFilms;
     }
 
     public List<Film> getFilmsByDirector(int directorId, String sortBy) {
-        directorStorage.getDirectorById(directorId);
-        List<Film> films = filmStorage.getFilmsByDirector(directorId);
-        List<Film> filmList = new ArrayList<>(films);
-        if (SortedBy.from(sortBy) == SortedBy.YEAR) {
-            filmList.sort(Comparator.comparing(Film::getReleaseDate));
-        } else if (SortedBy.from(sortBy) == SortedBy.LIKES) {
-            filmList.sort((f1, f2) -> Integer.compare(
-                    likesStorage.getLikeCountForFilm(f2.getId()),
-                    likesStorage.getLikeCountForFilm(f1.getId())
-            ));
-        } else {
+        referenceDataCache.getDirectorById(directorId);
+        SortedBy sortedBy = SortedBy.from(sortBy);
+        if (sortedBy == null) {
             throw new ValidationException("Некорректный параметр сортировки: " + sortBy);
         }
+        List<Film> filmList = filmStorage.getFilmsByDirector(directorId, sortedBy);
         log.debug("Получены фильмы режиссёра {} с сортировкой '{}': {}", directorId, sortBy, filmList);
-        return getAttributesForFilm(filmList);
+        return filmList;
     }
 
-    public List<Film> searchFilms(String query, String by) {
+    public List<Film> searchFilms(String query, String by, int limit) {
+        Paging.checkLimit(limit);
         if (query == null || query.isBlank()) {
             throw new ValidationException("Строка поиска не может быть пустой");
         }
-        String searchParam = "%" + query.toLowerCase() + "%";
-        Set<Film> result = new HashSet<>();
-        String[] criteria = by.split(",");
-        for (String criterion : criteria) {
+        boolean byTitle = false;
+        boolean byDirector = false;
+        for (String criterion : by.split(",")) {
             if ("title".equalsIgnoreCase(criterion.trim())) {
-                result.addAll(filmStorage.getFilmsByTitle(searchParam));
+                byTitle = true;
             } else if ("director".equalsIgnoreCase(criterion.trim())) {
-                result.addAll(filmStorage.getFilmsByDirectorName(searchParam));
+                byDirector = true;
             } else {
                 throw new ValidationException("Некорректное значение параметра 'by': " + criterion);
             }
         }
-        List<Film> sortedFilms = result.stream()
-                .sorted((f1, f2) -> Integer.compare(
-                        likesStorage.getLikeCountForFilm(f2.getId()),
-                        likesStorage.getLikeCountForFilm(f1.getId())
-                ))
-                .collect(Collectors.toList());
+        // Индекс сразу возвращает id в порядке убывания лайков
+        List<Film> sortedFilms = getFilmsInOrder(filmSearchIndex.search(query, byTitle, byDirector, limit));
         log.debug("Результаты поиска для query='{}', by='{}': {}", query, by, sortedFilms);
-        return getAttributesForFilm(sortedFilms);
+        return sortedFilms;
     }
 
     public Film likeFilm(int filmId, int userId) {
-        Film film = filmStorage.getFilmById(filmId);
-        userStorage.getUserById(userId);
+        Film film;
+        Set<Integer> likedFilms;
+        try (ConcurrentLookups.Scope scope = concurrentLookups.open()) {
+            Supplier<Film> filmLookup = scope.fork(() -> filmStorage.getFilmById(filmId));
+            scope.fork(() -> userStorage.getUserById(userId));
+            Supplier<Set<Integer>> likedLookup = scope.fork(() -> likesStorage.getLikedFilmsByUser(userId));
+            scope.join();
+            film = filmLookup.get();
+            likedFilms = likedLookup.get();
+        }
         eventStorage.addEvent(userId, EventType.LIKE, EventOperation.ADD, filmId);
-        Set<Integer> likedFilms = likesStorage.getLikedFilmsByUser(userId);
         if (likedFilms.contains(filmId)) {
             log.info("Пользователь {} уже поставил лайк фильму {}", userId, filmId);
             return film;
         }
-        likesStorage.addLike(filmId, userId);
+        long generation = popularFilmsIndex.generation();
+        if (likesStorage.addLike(filmId, userId)) {
+            popularFilmsIndex.addLikes(filmId, 1, generation);
+            recommendationEngine.addLike(userId, filmId);
+        }
         log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
         return filmStorage.getFilmById(filmId);
     }
 
     public void delLikeFilm(int filmId, int userId) {
-        filmStorage.getFilmById(filmId);
-        userStorage.getUserById(userId);
-        likesStorage.deleteLike(filmId, userId);
+        try (ConcurrentLookups.Scope scope = concurrentLookups.open()) {
+            scope.fork(() -> filmStorage.getFilmById(filmId));
+            scope.fork(() -> userStorage.getUserById(userId));
+            scope.join();
+        }
+        long generation = popularFilmsIndex.generation();
+        if (likesStorage.deleteLike(filmId, userId)) {
+            popularFilmsIndex.addLikes(filmId, -1, generation);
+            recommendationEngine.removeLike(userId, filmId);
+        }
         log.info("Пользователь {} убрал лайк с фильма {}", userId, filmId);
         eventStorage.addEvent(userId, EventType.LIKE, EventOperation.REMOVE, filmId);
     }
 
     public List<Film> getRecommendations(int userId) {
         userStorage.getUserById(userId);
-        List<Film> recommendedFilms = filmStorage.getRecommendations(userId);
+        // Сначала фильмы похожих пользователей, затем добираем похожими на понравившиеся фильмы
+        Set<Integer> ids = new LinkedHashSet<>(recommendationEngine.recommend(userId, MAX_RECOMMENDATIONS));
+        if (ids.size() < MAX_RECOMMENDATIONS) {
+            similarFilmsIndex.recommend(recommendationEngine.getLikedFilms(userId), MAX_RECOMMENDATIONS).stream()
+                    .limit(MAX_RECOMMENDATIONS - ids.size())
+                    .forEach(ids::add);
+        }
+        List<Film> recommendedFilms = getFilmsInOrder(new ArrayList<>(ids));
         if (recommendedFilms.isEmpty()) {
             log.info("Нет рекомендованных фильмов для пользователя с ID {}", userId);
             return recommendedFilms;
         }
         log.info("Получены рекомендации для пользователя с ID {}: {}", userId, recommendedFilms);
-        return getAttributesForFilm(recommendedFilms);
+        return recommendedFilms;
     }
 
-    public List<Film> getAttributesForFilm(List<Film> films) {
-        Set<Integer> filmIds = films.stream()
-                .map(Film::getId)
-                .collect(Collectors.toSet());
-        Map<Integer, Set<Genre>> genresMap = genreStorage.getGenresForFilmIds(filmIds);
-        Map<Integer, Set<Director>> directorsMap = directorStorage.getDirectorsForFilmIds(filmIds);
-        films.forEach(film -> {
-            film.setGenres(genresMap.getOrDefault(film.getId(), Collections.emptySet())
-                    .stream().sorted(Comparator.comparing(Genre::getId))
-                    .collect(Collectors.toCollection(LinkedHashSet::new)));
-            film.setDirectors(directorsMap.getOrDefault(film.getId(), Collections.emptySet()));
-        });
-        return films;
+    public List<Film> getSimilarFilms(int filmId, int count) {
+        filmStorage.getFilmById(filmId);
+        List<Film> similarFilms = getFilmsInOrder(similarFilmsIndex.getSimilarFilmIds(filmId, count));
+        log.debug("Получены фильмы, похожие на {}: {}", filmId, similarFilms);
+        return similarFilms;
+    }
+
+    // Загружает фильмы одним запросом и возвращает их в порядке переданных id
+    private List<Film> getFilmsInOrder(List<Integer> ids) {
+        Map<Integer, Film> films = filmStorage.getFilmsByIds(ids).stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
-}
\ No newline at end of file
+}
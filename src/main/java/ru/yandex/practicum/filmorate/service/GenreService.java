@@ -3,8 +3,8 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.GenreStorage;
 
 import java.util.List;
 
@@ -12,19 +12,19 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class GenreService {
-    private final GenreStorage genreStorage;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<Genre> getAllGenres() {
-        List<Genre> genres = genreStorage.getGenres();
+        List<Genre> genres = referenceDataCache.getGenres();
         log.debug("Получено жанров: {}", genres.size());
         return genres;
     }
 
     public Genre getGenreById(int id) {
-        return genreStorage.getGenreById(id);
+        return referenceDataCache.getGenreById(id);
     }
 
     public Genre update(Genre genre) {
-        return genreStorage.getGenreById(genre.getId());
+        return referenceDataCache.getGenreById(genre.getId());
     }
-}
\ No newline at end of file
+}
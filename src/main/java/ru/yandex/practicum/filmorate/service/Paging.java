@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Проверка параметров постраничной выборки по ключу (after — последний полученный id).
+ */
+public final class Paging {
+    public static final int MAX_LIMIT = 1000;
+
+    private Paging() {
+    }
+
+    static void check(int afterId, int limit) {
+        check("after", afterId, limit);
+    }
+
+    static void check(String cursorName, int cursorId, int limit) {
+        checkLimit(limit);
+        if (cursorId < 0) {
+            throw new ValidationException("Параметр " + cursorName + " не может быть отрицательным");
+        }
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_LIMIT);
+        }
+    }
+}
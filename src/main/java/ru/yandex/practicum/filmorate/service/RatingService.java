@@ -3,8 +3,8 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.Rating;
-import ru.yandex.practicum.filmorate.storage.RatingStorage;
 
 import java.util.List;
 
@@ -12,16 +12,16 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class RatingService {
-    private final RatingStorage ratingStorage;
+    private final ReferenceDataCache referenceDataCache;
 
     public List<Rating> getAllRating() {
-        List<Rating> ratings = ratingStorage.getAllRatings();
+        List<Rating> ratings = referenceDataCache.getRatings();
         log.debug("Получено рейтингов: {}", ratings.size());
         return ratings;
     }
 
     public Rating getRatingById(int id) {
         log.debug("Получен рейтинг с id: {}", id);
-        return ratingStorage.getRatingById(id);
+        return referenceDataCache.getRatingById(id);
     }
-}
\ No newline at end of file
+}
@@ -6,13 +6,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.status.EventOperation;
 import ru.yandex.practicum.filmorate.dal.status.EventType;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.review.ReviewVotes;
+import ru.yandex.practicum.filmorate.review.TopReviewsIndex;
 import ru.yandex.practicum.filmorate.storage.EventStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.ReviewStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -23,6 +29,8 @@ public class ReviewService {
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
     private final EventStorage eventStorage;
+    private final ReviewVotes reviewVotes;
+    private final TopReviewsIndex topReviewsIndex;
 
     // Создание нового отзыва
     public Review createReview(@Valid Review review) {
@@ -32,6 +40,7 @@ public class ReviewService {
         filmStorage.getFilmById(review.getFilmId());
 
         Review created = reviewStorage.createReview(review);
+        topReviewsIndex.putReview(created.getReviewId(), created.getFilmId(), 0);
         log.info("Создан отзыв с id: {}", created.getReviewId());
         eventStorage.addEvent(review.getUserId(), EventType.REVIEW, EventOperation.ADD, review.getReviewId());
         return created;
@@ -40,7 +49,7 @@ public class ReviewService {
     // Обновление существующего отзыва
     public Review updateReview(@Valid Review review) {
         reviewStorage.getReviewById(review.getReviewId());
-        Review updated = reviewStorage.updateReview(review);
+        Review updated = reviewVotes.withPending(reviewStorage.updateReview(review));
         log.info("Отзыв с id {} обновлён", review.getReviewId());
         eventStorage.addEvent(updated.getUserId(), EventType.REVIEW, EventOperation.UPDATE, updated.getReviewId());
         return updated;
@@ -50,18 +59,60 @@ public class ReviewService {
     public void deleteReview(int reviewId) {
         Review reviewToDelete = getReviewById(reviewId);
         reviewStorage.deleteReview(reviewId);
+        reviewVotes.forget(reviewId);
+        topReviewsIndex.removeReview(reviewId);
         log.info("Отзыв с id {} удалён", reviewId);
         eventStorage.addEvent(reviewToDelete.getUserId(), EventType.REVIEW, EventOperation.REMOVE, reviewId);
     }
 
     // Получение отзыва по ID
     public Review getReviewById(int reviewId) {
-        return reviewStorage.getReviewById(reviewId);
+        return reviewVotes.withPending(reviewStorage.getReviewById(reviewId));
     }
 
     // Получение списка отзывов
     public List<Review> getReviews(Integer filmId, Integer count) {
-        List<Review> reviews = reviewStorage.getReviewsByFilmId(filmId, count);
+        return getReviews(filmId, count, null, null);
+    }
+
+    /**
+     * Страница отзывов по убыванию полезности из рейтинга отзывов. Курсор — полезность и id последнего
+     * полученного отзыва (afterUseful, afterId); без курсора выдаётся начало списка.
+     */
+    public List<Review> getReviews(Integer filmId, int count, Integer afterUseful, Integer afterId) {
+        if ((afterUseful == null) != (afterId == null)) {
+            throw new ValidationException("Параметры afterUseful и afterId задаются вместе");
+        }
+        if (afterId != null) {
+            Paging.check("afterId", afterId, count);
+        }
+        List<Review> reviews = new ArrayList<>();
+        Integer cursorUseful = afterUseful;
+        Integer cursorId = afterId;
+        while (reviews.size() < count) {
+            List<TopReviewsIndex.Entry> ranked = topReviewsIndex.getTop(filmId, count - reviews.size(),
+                    cursorUseful, cursorId);
+            if (ranked.isEmpty()) {
+                break;
+            }
+            Map<Integer, Review> found = new HashMap<>();
+            reviewStorage.getReviewsByIds(ranked.stream().map(TopReviewsIndex.Entry::reviewId).toList())
+                    .forEach(review -> found.put(review.getReviewId(), review));
+            for (TopReviewsIndex.Entry entry : ranked) {
+                Review review = found.get(entry.reviewId());
+                if (review == null) {
+                    // Отзыв удалён каскадом вместе с пользователем или фильмом
+                    topReviewsIndex.removeReview(entry.reviewId());
+                    continue;
+                }
+                // Полезность берётся из рейтинга, чтобы она совпадала с порядком и курсором страницы
+                review.setUseful(entry.useful());
+                reviews.add(review);
+            }
+            TopReviewsIndex.Entry last = ranked.getLast();
+            cursorUseful = last.useful();
+            cursorId = last.reviewId();
+        }
         log.info("Получено {} отзывов (filmId = {})", reviews.size(), filmId);
         return reviews;
     }
@@ -71,28 +122,28 @@ public class ReviewService {
     public void addLike(int reviewId, int userId) {
         getReviewById(reviewId);
         userStorage.getUserById(userId);
-        reviewStorage.addLike(reviewId, userId);
+        reviewVotes.like(reviewId, userId);
         log.info("Пользователь {} поставил лайк отзыву {}", userId, reviewId);
     }
 
     public void addDislike(int reviewId, int userId) {
         getReviewById(reviewId);
         userStorage.getUserById(userId);
-        reviewStorage.addDislike(reviewId, userId);
+        reviewVotes.dislike(reviewId, userId);
         log.info("Пользователь {} поставил дизлайк отзыву {}", userId, reviewId);
     }
 
     public void removeLike(int reviewId, int userId) {
         getReviewById(reviewId);
         userStorage.getUserById(userId);
-        reviewStorage.removeLike(reviewId, userId);
+        reviewVotes.removeLike(reviewId, userId);
         log.info("Пользователь {} удалил лайк у отзыва {}", userId, reviewId);
     }
 
     public void removeDislike(int reviewId, int userId) {
         getReviewById(reviewId);
         userStorage.getUserById(userId);
-        reviewStorage.removeDislike(reviewId, userId);
+        reviewVotes.removeDislike(reviewId, userId);
         log.info("Пользователь {} удалил дизлайк у отзыва {}", userId, reviewId);
     }
 }
\ No newline at end of file
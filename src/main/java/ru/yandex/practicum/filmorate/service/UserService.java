@@ -6,12 +6,17 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.status.EventOperation;
 import ru.yandex.practicum.filmorate.dal.status.EventType;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.feed.FriendsFeed;
+import ru.yandex.practicum.filmorate.index.FriendSuggestions;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -20,6 +25,13 @@ public class UserService {
     private final UserStorage userStorage;
     private final FriendshipStorage friendshipStorage;
     private final EventStorage eventStorage;
+    private final LikesStorage likesStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final RecommendationEngine recommendationEngine;
+    private final FriendsFeed friendsFeed;
+    private final SocialGraph socialGraph;
+    private final FriendSuggestions friendSuggestions;
+    private final ConcurrentLookups concurrentLookups;
 
     public User createUser(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
@@ -37,50 +49,114 @@ public class UserService {
         return userStorage.getUsers();
     }
 
+    public List<User> getUsersPage(int afterId, int limit) {
+        Paging.check(afterId, limit);
+        return userStorage.getUsersPage(afterId, limit);
+    }
+
     public User getUserById(int id) {
         return userStorage.getUserById(id);
     }
 
     public void deleteUser(int id) {
+        Set<Integer> likedFilms = likesStorage.getLikedFilmsByUser(id);
+        long generation = popularFilmsIndex.generation();
+        likesStorage.deleteLikesByUser(id);
+        likedFilms.forEach(filmId -> popularFilmsIndex.addLikes(filmId, -1, generation));
+        recommendationEngine.removeUser(id);
+        socialGraph.removeUser(id);
+        friendSuggestions.invalidate(id);
         eventStorage.deleteEventsByUserId(id);
         userStorage.deleteUser(id);
     }
 
     public void addFriend(int userId, int friendId) {
-        getUserById(userId);
-        getUserById(friendId);
+        checkUsersExist(userId, friendId);
         friendshipStorage.addFriend(userId, friendId);
+        socialGraph.addFriend(userId, friendId);
+        friendsFeed.onFollowChanged(userId);
+        friendSuggestions.invalidate(userId);
         log.info("Пользователь {} добавил в друзья {}", userId, friendId);
         eventStorage.addEvent(userId, EventType.FRIEND, EventOperation.ADD, friendId);
     }
 
     public void deleteFriend(int userId, int friendId) {
-        getUserById(userId);
-        getUserById(friendId);
+        checkUsersExist(userId, friendId);
         friendshipStorage.deleteFriend(userId, friendId);
+        socialGraph.deleteFriend(userId, friendId);
+        friendsFeed.onFollowChanged(userId);
+        friendSuggestions.invalidate(userId);
         log.info("Пользователь {} удалил из друзей {}", userId, friendId);
         eventStorage.addEvent(userId, EventType.FRIEND, EventOperation.REMOVE, friendId);
     }
 
     public List<User> getFriends(int userId) {
         getUserById(userId);
-        return friendshipStorage.getAllUserFriends(userId);
+        return userStorage.getUsersByIds(socialGraph.getFriendIds(userId));
     }
 
     public List<User> getCommonFriend(int firstId, int secondId) {
-        getUserById(firstId);
-        getUserById(secondId);
-        return friendshipStorage.getCommonFriends(firstId, secondId);
+        checkUsersExist(firstId, secondId);
+        return userStorage.getUsersByIds(socialGraph.getCommonFriendIds(firstId, secondId));
     }
 
-    public LinkedList<Event> getFeedUserById(int id) {
-        LinkedList<Event> events = eventStorage.getFeedUserById(id).stream()
-                .sorted(Comparator.comparing(Event::getTimestamp))
-                .collect(Collectors.toCollection(LinkedList::new));
+    /**
+     * Возможные знакомые: друзья друзей по убыванию числа общих друзей и общих лайков.
+     * Для пользователя хранится не больше {@link FriendSuggestions#MAX_SUGGESTIONS} предложений, поэтому
+     * больший count отклоняется, а не молча урезается.
+     */
+    public List<User> getSuggestions(int id, int count) {
+        if (count < 1 || count > FriendSuggestions.MAX_SUGGESTIONS) {
+            throw new ValidationException("Параметр count должен быть от 1 до " + FriendSuggestions.MAX_SUGGESTIONS);
+        }
+        getUserById(id);
+        List<Integer> ranked = friendSuggestions.getSuggestions(id, count);
+        Map<Integer, User> users = new HashMap<>();
+        userStorage.getUsersByIds(ranked.stream().mapToInt(Integer::intValue).toArray())
+                .forEach(user -> users.put(user.getId(), user));
+        return ranked.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<Event> getFeedUserById(int id) {
+        List<Event> events = eventStorage.getFeedUserById(id);
         if (events.isEmpty()) {
             throw new NotFoundException("Лента событий для пользователя с id " + id + " пуста.");
         }
         return events;
     }
 
-}
\ No newline at end of file
+    /**
+     * Страница ленты по возрастанию id событий: после since, а без него — последние limit событий.
+     */
+    public List<Event> getFeedPage(int id, Integer since, int limit) {
+        Paging.check("since", since == null ? 0 : since, limit);
+        List<Event> events = since == null
+                ? eventStorage.getLatestEvents(id, limit)
+                : eventStorage.getEventsSince(id, since, limit);
+        if (events.isEmpty()) {
+            // Пустая страница — норма для опроса новых событий, но не для несуществующего пользователя
+            getUserById(id);
+        }
+        return events;
+    }
+
+    /**
+     * Лента событий тех, на кого подписан пользователь: страница до события before, без него — самая свежая.
+     */
+    public List<Event> getFriendsFeed(int id, Integer before, int limit) {
+        Paging.check("before", before == null ? 0 : before, limit);
+        getUserById(id);
+        return friendsFeed.getFeed(id, before, limit);
+    }
+
+    private void checkUsersExist(int firstId, int secondId) {
+        try (ConcurrentLookups.Scope scope = concurrentLookups.open()) {
+            scope.fork(() -> getUserById(firstId));
+            scope.fork(() -> getUserById(secondId));
+            scope.join();
+        }
+    }
+}
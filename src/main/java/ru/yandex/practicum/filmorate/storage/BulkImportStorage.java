@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетная запись для массового импорта. Id пользователей и фильмов задаются импортом,
+ * поэтому счётчики идентификаторов сдвигаются за выдаваемые импортом id заранее, до вставки:
+ * иначе одновременная вставка через API получила бы тот же id.
+ */
+public interface BulkImportStorage {
+
+    /**
+     * Id пользователей в диапазоне [from, to).
+     */
+    BitSet getUserIds(int from, int to);
+
+    /**
+     * Id фильмов в диапазоне [from, to).
+     */
+    BitSet getFilmIds(int from, int to);
+
+    Set<String> getUserLogins();
+
+    void insertUsers(List<User> users);
+
+    /**
+     * Вставляет фильмы вместе с жанрами и режиссёрами.
+     */
+    void insertFilms(List<Film> films);
+
+    /**
+     * Добавляет лайки, уже поставленные лайки пропускаются. Пара — {userId, filmId}.
+     */
+    void insertLikes(List<int[]> likes);
+
+    /**
+     * Счётчик id пользователей выдаёт значения начиная с next.
+     */
+    void restartUserIds(int next);
+
+    /**
+     * Счётчик id фильмов выдаёт значения начиная с next.
+     */
+    void restartFilmIds(int next);
+}
@@ -5,12 +5,35 @@ import ru.yandex.practicum.filmorate.dal.status.EventType;
 import ru.yandex.practicum.filmorate.model.Event;
 
 import java.util.List;
+import java.util.Map;
 
 public interface EventStorage {
 
     List<Event> getFeedUserById(int id);
 
+    /**
+     * Последние limit событий пользователя по возрастанию id.
+     */
+    List<Event> getLatestEvents(int userId, int limit);
+
+    /**
+     * Не больше limit событий пользователя с id больше sinceId по возрастанию id.
+     */
+    List<Event> getEventsSince(int userId, int sinceId, int limit);
+
+    /**
+     * Последние limit событий пользователя с id меньше beforeId по возрастанию id.
+     */
+    List<Event> getEventsBefore(int userId, int beforeId, int limit);
+
+    /**
+     * Id последнего события каждого пользователя, у которого есть события.
+     */
+    Map<Integer, Integer> getLastEventIds();
+
     void addEvent(int userId, EventType eventType, EventOperation operation, int entityId);
 
+    void addEvents(List<Event> events);
+
     void deleteEventsByUserId(int userId);
 }
@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.enums.SortedBy;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface FilmStorage {
 
@@ -14,13 +17,20 @@ public interface FilmStorage {
 
     Film getFilmById(int id);
 
-    void deleteFilm(int id);
+    List<Film> getFilmsByIds(Collection<Integer> ids);
+
+    /**
+     * Какие из фильмов существуют — одним запросом на часть id, без сборки фильмов.
+     */
+    Set<Integer> getExistingIds(Collection<Integer> ids);
 
-    List<Film> getFilmsByDirector(int directorId);
+    List<Film> getFilmsPage(int afterId, int limit);
+
+    void deleteFilm(int id);
 
-    List<Film> getFilmsByTitle(String searchQuery);
+    List<Film> getTopFilms(int count, Integer genreId, Integer year);
 
-    List<Film> getFilmsByDirectorName(String searchQuery);
+    List<Film> getFilmsByDirector(int directorId, SortedBy sortBy);
 
-    List<Film> getRecommendations(long userId);
+    List<Film> getCommonFilms(int userId, int friendId);
 }
@@ -1,8 +1,7 @@
 package ru.yandex.practicum.filmorate.storage;
 
-import ru.yandex.practicum.filmorate.model.User;
-
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public interface FriendshipStorage {
 
@@ -10,7 +9,14 @@ public interface FriendshipStorage {
 
     void deleteFriend(int userId, int friendId);
 
-    List<User> getCommonFriends(int firstUserId, int secondUserId);
+    /**
+     * Пакетно добавляет (add[i] = true) и удаляет пары (пользователь, друг) в порядке списка.
+     * Возвращает, изменила ли каждая операция FRIENDS_LIST.
+     */
+    boolean[] applyFriendships(List<int[]> userAndFriend, boolean[] add);
 
-    List<User> getAllUserFriends(int userId);
+    /**
+     * Обходит все пары (пользователь, друг) одним потоковым запросом.
+     */
+    void forEachFriendship(BiConsumer<Integer, Integer> userAndFriend);
 }
\ No newline at end of file
@@ -1,14 +1,38 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 public interface LikesStorage {
 
-    void addLike(int filmId, int userId);
+    /**
+     * Ставит лайк; false, если он уже был.
+     */
+    boolean addLike(int filmId, int userId);
 
-    void deleteLike(int filmId, int userId);
+    /**
+     * Снимает лайк; false, если его не было.
+     */
+    boolean deleteLike(int filmId, int userId);
+
+    void deleteLikesByUser(int userId);
 
     int getLikeCountForFilm(int filmId);
 
+    Map<Integer, Integer> getLikeCounts();
+
+    /**
+     * Пакетно ставит (add[i] = true) и снимает лайки — пары (фильм, пользователь) — в порядке списка
+     * и поправляет LIKES_COUNT. Возвращает, изменила ли каждая операция LIKE_LIST:
+     * повторный лайк и снятие отсутствующего ничего не меняют.
+     */
+    boolean[] applyLikes(List<int[]> filmAndUser, boolean[] add);
+
+    void recountLikes();
+
     Set<Integer> getLikedFilmsByUser(int userId);
-}
\ No newline at end of file
+
+    void forEachLike(BiConsumer<Integer, Integer> userAndFilm);
+}
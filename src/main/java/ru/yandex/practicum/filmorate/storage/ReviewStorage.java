@@ -2,7 +2,9 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Review;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ReviewStorage {
 
@@ -12,15 +14,38 @@ public interface ReviewStorage {
 
     Review getReviewById(int reviewId);
 
-    List<Review> getReviewsByFilmId(Integer filmId, int count);
+    List<Review> getReviewsByIds(Collection<Integer> ids);
 
-    void deleteReview(int reviewId);
-
-    void addLike(int reviewId, int userId);
+    /**
+     * Обходит все отзывы, передавая id, фильм и полезность, — для построения рейтинга отзывов.
+     */
+    void forEachRank(RankConsumer consumer);
 
-    void addDislike(int reviewId, int userId);
-
-    void removeLike(int reviewId, int userId);
+    void deleteReview(int reviewId);
 
-    void removeDislike(int reviewId, int userId);
+    /**
+     * Ставит голос пользователя за отзыв (лайк или дизлайк) и возвращает изменение полезности:
+     * 0 — голос уже такой, ±1 — новый голос, ±2 — голос сменился на противоположный.
+     */
+    int setVote(int reviewId, int userId, boolean isLike);
+
+    /**
+     * Снимает голос, если он именно такой, и возвращает изменение полезности (0 — такого голоса не было).
+     */
+    int removeVote(int reviewId, int userId, boolean isLike);
+
+    /**
+     * Прибавляет к полезности отзывов накопленные изменения одним пакетом.
+     */
+    void addUseful(Map<Integer, Long> deltas);
+
+    /**
+     * Пересчитывает полезность по REVIEW_LIKES там, где она разошлась; возвращает число исправленных отзывов.
+     */
+    int reconcileUseful();
+
+    @FunctionalInterface
+    interface RankConsumer {
+        void accept(int reviewId, int filmId, int useful);
+    }
 }
\ No newline at end of file
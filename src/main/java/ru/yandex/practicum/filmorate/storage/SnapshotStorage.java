@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.bulk.ExportTable;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Построчное чтение таблиц для выгрузки.
+ */
+public interface SnapshotStorage {
+
+    List<String> getColumns(ExportTable table);
+
+    /**
+     * Строки таблицы по возрастанию ключа, начиная после after (null — с начала), в порядке колонок
+     * {@link #getColumns}. Поток держит соединение с БД и должен быть закрыт.
+     */
+    Stream<Object[]> streamRows(ExportTable table, int[] after);
+}
@@ -2,7 +2,9 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface UserStorage {
 
@@ -14,5 +16,17 @@ public interface UserStorage {
 
     User getUserById(int id);
 
+    List<User> getUsersPage(int afterId, int limit);
+
+    /**
+     * Пользователи с указанными id одним запросом, по возрастанию id.
+     */
+    List<User> getUsersByIds(int[] ids);
+
+    /**
+     * Какие из пользователей существуют — одним запросом на часть id.
+     */
+    Set<Integer> getExistingIds(Collection<Integer> ids);
+
     void deleteUser(int id);
 }
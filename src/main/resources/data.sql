@@ -1,29 +0,0 @@
-SET REFERENTIAL_INTEGRITY FALSE;
-TRUNCATE TABLE USERS      RESTART IDENTITY;
-TRUNCATE TABLE DIRECTORS  RESTART IDENTITY;
-TRUNCATE TABLE DIRECTORS_SAVE        RESTART IDENTITY;
-TRUNCATE TABLE GENRES   RESTART IDENTITY;
-TRUNCATE TABLE GENRES_SAVE        RESTART IDENTITY;
-TRUNCATE TABLE RATING   RESTART IDENTITY;
-TRUNCATE TABLE FILMS        RESTART IDENTITY;
-TRUNCATE TABLE LIKE_LIST      RESTART IDENTITY;
-TRUNCATE TABLE FRIENDS_LIST      RESTART IDENTITY;
-TRUNCATE TABLE REVIEWS      RESTART IDENTITY;
-TRUNCATE TABLE EVENTS      RESTART IDENTITY;
-TRUNCATE TABLE REVIEW_LIKES      RESTART IDENTITY;
-SET REFERENTIAL_INTEGRITY TRUE;
-
-INSERT INTO GENRES (GENRE_NAME)
-VALUES ('Комедия'),
-       ('Драма'),
-       ('Мультфильм'),
-       ('Триллер'),
-       ('Документальный'),
-       ('Боевик');
-
-INSERT INTO RATING (RATING_NAME)
-VALUES ('G'),
-       ('PG'),
-       ('PG-13'),
-       ('R'),
-       ('NC-17');
\ No newline at end of file
@@ -0,0 +1,6 @@
+-- БД, созданная прежним schema.sql, не знает счётчика лайков: V1 пропускает уже существующую FILMS,
+-- а V3 строит по LIKES_COUNT индекс. Колонка добавляется здесь и заполняется по LIKE_LIST.
+ALTER TABLE FILMS ADD COLUMN IF NOT EXISTS LIKES_COUNT INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE FILMS f
+SET LIKES_COUNT = (SELECT COUNT(*) FROM LIKE_LIST ll WHERE ll.FILM_ID = f.FILM_ID);
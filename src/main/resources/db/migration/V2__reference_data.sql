@@ -0,0 +1,16 @@
+-- Справочники жанров и рейтингов. Id заданы явно: MERGE не создаёт дубликатов,
+-- если справочник уже заполнен прежним data.sql.
+MERGE INTO GENRES (GENRE_ID, GENRE_NAME) KEY (GENRE_ID)
+VALUES (1, 'Комедия'),
+       (2, 'Драма'),
+       (3, 'Мультфильм'),
+       (4, 'Триллер'),
+       (5, 'Документальный'),
+       (6, 'Боевик');
+
+MERGE INTO RATING (RATING_ID, RATING_NAME) KEY (RATING_ID)
+VALUES (1, 'G'),
+       (2, 'PG'),
+       (3, 'PG-13'),
+       (4, 'R'),
+       (5, 'NC-17');
@@ -0,0 +1,35 @@
+-- Вторичные индексы для частых выборок по внешним ключам.
+-- Эффект замеряется SchemaIndexBenchmark (src/jmh): -p schema=2,latest
+
+-- Популярные фильмы: ORDER BY LIKES_COUNT DESC, FILM_ID
+CREATE INDEX IF NOT EXISTS FILMS_LIKES_COUNT_IDX ON FILMS (LIKES_COUNT DESC, FILM_ID);
+
+-- Лайки пользователя (getLikedFilmsByUser, рекомендации): первичный ключ начинается с FILM_ID
+CREATE INDEX IF NOT EXISTS LIKE_LIST_USER_FILM_IDX ON LIKE_LIST (USER_ID, FILM_ID);
+
+-- Подписчики пользователя: первичный ключ начинается с USER_ID
+CREATE INDEX IF NOT EXISTS FRIENDS_LIST_FRIEND_IDX ON FRIENDS_LIST (FRIEND_ID, USER_ID);
+
+-- Лента пользователя по возрастанию и убыванию EVENT_ID
+CREATE INDEX IF NOT EXISTS EVENTS_USER_EVENT_IDX ON EVENTS (USER_ID, EVENT_ID);
+
+-- Жанры и режиссёры фильмов (getGenresForFilmIds, getDirectorsForFilmIds): уникальный ключ
+-- покрывает выборку по FILM_ID. Повторы, которые раньше ничем не запрещались, удаляются
+DELETE FROM GENRES_SAVE gs
+WHERE EXISTS (SELECT 1
+              FROM GENRES_SAVE d
+              WHERE d.FILM_ID = gs.FILM_ID AND d.GENRE_ID = gs.GENRE_ID AND d.ID < gs.ID);
+ALTER TABLE GENRES_SAVE ADD CONSTRAINT IF NOT EXISTS GENRES_SAVE_FILM_GENRE_UK UNIQUE (FILM_ID, GENRE_ID);
+
+DELETE FROM DIRECTORS_SAVE ds
+WHERE EXISTS (SELECT 1
+              FROM DIRECTORS_SAVE d
+              WHERE d.FILM_ID = ds.FILM_ID AND d.DIRECTOR_ID = ds.DIRECTOR_ID AND d.ID < ds.ID);
+ALTER TABLE DIRECTORS_SAVE ADD CONSTRAINT IF NOT EXISTS DIRECTORS_SAVE_FILM_DIRECTOR_UK UNIQUE (FILM_ID, DIRECTOR_ID);
+
+-- Фильмы режиссёра
+CREATE INDEX IF NOT EXISTS DIRECTORS_SAVE_DIRECTOR_FILM_IDX ON DIRECTORS_SAVE (DIRECTOR_ID, FILM_ID);
+
+-- Отзывы к фильму и все отзывы по убыванию полезности
+CREATE INDEX IF NOT EXISTS REVIEWS_FILM_USEFUL_IDX ON REVIEWS (FILM_ID, USEFUL DESC);
+CREATE INDEX IF NOT EXISTS REVIEWS_USEFUL_IDX ON REVIEWS (USEFUL DESC);
@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
+import ru.yandex.practicum.filmorate.mapper.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Импорт пишет частями по две записи. ALTER TABLE в конце импорта фиксирует транзакцию,
+ * поэтому тест работает без общей транзакции и сам очищает таблицы.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "filmorate.import.chunk-size=2")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpyBean(BulkImportRepository.class)
+@Import({BulkImporter.class,
+        BulkImportRepository.class,
+        FilmRepository.class,
+        CachingFilmStorage.class,
+        LikesRepository.class,
+        RatingRepository.class,
+        GenreRepository.class,
+        DirectorRepository.class,
+        FilmRowMapper.class,
+        RatingRowMapper.class,
+        GenreRowMapper.class,
+        DirectorRowMapper.class,
+        UserRowMapper.class,
+        FilmResultSetExtractor.class,
+        PopularFilmsIndex.class,
+        RecommendationEngine.class,
+        SimilarFilmsIndex.class,
+        FilmSearchIndex.class,
+        ReferenceDataCache.class
+})
+class BulkImporterTest {
+    private final BulkImporter bulkImporter;
+    private final BulkImportRepository bulkImportRepository;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final JdbcTemplate jdbc;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM FILMS");
+        jdbc.update("DELETE FROM USERS");
+    }
+
+    @Test
+    void importsUsersFilmsAndLikesInOneRun() throws IOException {
+        List<ImportReport> reports = bulkImporter.importAll(List.of(
+                source(ImportKind.USERS, ImportFormat.CSV, """
+                        id,email,login,name,birthday
+                        10,a@example.com,alice,Alice,1990-01-01
+                        ,b@example.com,bob,,1991-02-02
+                        ,c@example.com,alice,"Dup, login",1992-03-03
+                        ,not-an-email,carol,,1993-04-04
+                        """),
+                source(ImportKind.FILMS, ImportFormat.NDJSON, """
+                        {"id":5,"name":"Bulk film","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1},"genres":[{"id":1},{"id":2}]}
+                        {"name":"Second","description":"d","releaseDate":"2001-01-01","duration":80,"mpa":{"id":2}}
+                        {"name":"No rating","description":"d","releaseDate":"2001-01-01","duration":80}
+                        {broken
+                        """),
+                source(ImportKind.LIKES, ImportFormat.NDJSON, """
+                        {"userId":10,"filmId":5}
+                        {"userId":11,"filmId":5}
+                        {"userId":11,"filmId":5}
+                        {"userId":10,"filmId":999}
+                        """)));
+
+        assertThat(reports).extracting(ImportReport::accepted).containsExactly(2L, 2L, 3L);
+        assertThat(reports).extracting(ImportReport::rejected).containsExactly(2L, 2L, 1L);
+        assertThat(reports.get(0).errors()).first().asString().startsWith("строка 4:");
+        assertThat(reports.get(1).errors()).hasSize(2);
+
+        assertThat(jdbc.queryForObject("SELECT NAME FROM USERS WHERE USER_ID = 11", String.class))
+                .isEqualTo("bob");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM GENRES_SAVE WHERE FILM_ID = 5", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = 5", Integer.class))
+                .isEqualTo(2);
+        assertThat(popularFilmsIndex.getLikes(5)).isEqualTo(2);
+        assertThat(filmSearchIndex.search("bulk", true, false, 10)).contains(5);
+
+        // Счётчик id сдвинут за импортированные записи
+        jdbc.update("INSERT INTO USERS (EMAIL, LOGIN, BIRTHDAY) VALUES ('d@example.com', 'dave', DATE '1990-01-01')");
+        assertThat(jdbc.queryForObject("SELECT USER_ID FROM USERS WHERE LOGIN = 'dave'", Integer.class))
+                .isGreaterThan(11);
+    }
+
+    @Test
+    void rejectsFilmsWithoutRequiredColumnsLineByLine() throws IOException {
+        List<ImportReport> reports = bulkImporter.importAll(List.of(source(ImportKind.FILMS, ImportFormat.NDJSON, """
+                {"name":"No date","description":"d","duration":90,"mpa":{"id":1}}
+                {"name":"No duration","description":"d","releaseDate":"2000-01-01","mpa":{"id":1}}
+                {"name":"Complete","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1}}
+                """)));
+
+        assertThat(reports.getFirst().accepted()).isEqualTo(1);
+        assertThat(reports.getFirst().errors()).containsExactly(
+                "строка 1: releaseDate не указана",
+                "строка 2: duration не указана");
+        assertThat(jdbc.queryForObject("SELECT FILM_NAME FROM FILMS", String.class)).isEqualTo("Complete");
+    }
+
+    @Test
+    void concurrentInsertDoesNotTakeImportedIds() throws IOException {
+        jdbc.update("INSERT INTO USERS (EMAIL, LOGIN, BIRTHDAY) VALUES ('e@example.com', 'erin', DATE '1990-01-01')");
+        // Пользователь создаётся через API после проверки записей, но до вставки части
+        doAnswer(invocation -> {
+            jdbc.update("INSERT INTO USERS (EMAIL, LOGIN, BIRTHDAY) VALUES ('a@example.com', 'api', DATE '1990-01-01')");
+            return invocation.callRealMethod();
+        }).when(bulkImportRepository).insertUsers(anyList());
+
+        List<ImportReport> reports = bulkImporter.importAll(List.of(source(ImportKind.USERS, ImportFormat.CSV, """
+                email,login,birthday
+                f@example.com,frank,1990-01-01
+                g@example.com,grace,1990-01-01
+                """)));
+
+        assertThat(reports.getFirst().accepted()).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT COUNT(DISTINCT USER_ID) FROM USERS", Integer.class)).isEqualTo(4);
+    }
+
+    private static BulkImporter.Source source(ImportKind kind, ImportFormat format, String content) {
+        InputStream in = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        return new BulkImporter.Source(kind, format, in);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.bulk;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.SnapshotRepository;
+import ru.yandex.practicum.filmorate.mapper.UserRowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({SnapshotExporter.class,
+        SnapshotRepository.class,
+        UserRowMapper.class})
+class SnapshotExporterTest {
+    private final SnapshotExporter snapshotExporter;
+    private final JdbcTemplate jdbc;
+
+    private int firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            jdbc.update("INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, DATE '1990-01-0" + i + "')",
+                    "user" + i + "@example.com", "user" + i, "User \"" + i + "\"");
+        }
+        firstUserId = jdbc.queryForObject("SELECT MIN(USER_ID) FROM USERS", Integer.class);
+        jdbc.update("INSERT INTO FRIENDS_LIST (USER_ID, FRIEND_ID) VALUES (?, ?), (?, ?), (?, ?)",
+                firstUserId, firstUserId + 1, firstUserId, firstUserId + 2, firstUserId + 1, firstUserId);
+    }
+
+    // Нужна тестам без транзакции теста; в остальных удаление откатится вместе с ней
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM FRIENDS_LIST");
+        jdbc.update("DELETE FROM USERS");
+    }
+
+    @Test
+    void exportsTableAsNdjson() throws IOException {
+        List<String> lines = export(ExportTable.USERS, null);
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.getFirst()).isEqualTo("{\"user_id\":" + firstUserId + ",\"email\":\"user1@example.com\","
+                + "\"login\":\"user1\",\"name\":\"User \\\"1\\\"\",\"birthday\":\"1990-01-01\"}");
+    }
+
+    @Test
+    void resumesAfterCompositeKey() throws IOException {
+        List<String> lines = export(ExportTable.FRIENDS, new int[]{firstUserId, firstUserId + 1});
+
+        assertThat(lines).containsExactly(
+                "{\"user_id\":" + firstUserId + ",\"friend_id\":" + (firstUserId + 2) + "}",
+                "{\"user_id\":" + (firstUserId + 1) + ",\"friend_id\":" + firstUserId + "}");
+    }
+
+    @Test
+    void snapshotWritesEveryTable() throws IOException {
+        Map<ExportTable, ByteArrayOutputStream> files = new EnumMap<>(ExportTable.class);
+        snapshotExporter.exportSnapshot(List.of(ExportTable.USERS, ExportTable.FRIENDS, ExportTable.FILMS),
+                new SnapshotExporter.SnapshotSink() {
+                    @Override
+                    public OutputStream open(ExportTable table) {
+                        return files.computeIfAbsent(table, t -> new ByteArrayOutputStream());
+                    }
+
+                    @Override
+                    public void close(ExportTable table, OutputStream out) {
+                    }
+                });
+
+        assertThat(files.get(ExportTable.USERS).toString(StandardCharsets.UTF_8).lines()).hasSize(3);
+        assertThat(files.get(ExportTable.FRIENDS).toString(StandardCharsets.UTF_8).lines()).hasSize(3);
+        assertThat(files.get(ExportTable.FILMS).size()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void snapshotIgnoresWritesCommittedBetweenTables() throws IOException {
+        Map<ExportTable, ByteArrayOutputStream> files = new EnumMap<>(ExportTable.class);
+        snapshotExporter.exportSnapshot(List.of(ExportTable.USERS, ExportTable.FRIENDS),
+                new SnapshotExporter.SnapshotSink() {
+                    @Override
+                    public OutputStream open(ExportTable table) {
+                        if (table == ExportTable.FRIENDS) {
+                            // Пользователи уже выгружены, дружбы ещё не читались: запись коммитится в другом соединении
+                            CompletableFuture.runAsync(() -> jdbc.update(
+                                    "INSERT INTO FRIENDS_LIST (USER_ID, FRIEND_ID) VALUES (?, ?)",
+                                    firstUserId + 2, firstUserId)).join();
+                        }
+                        return files.computeIfAbsent(table, t -> new ByteArrayOutputStream());
+                    }
+
+                    @Override
+                    public void close(ExportTable table, OutputStream out) {
+                    }
+                });
+
+        assertThat(files.get(ExportTable.FRIENDS).toString(StandardCharsets.UTF_8).lines()).hasSize(3);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM FRIENDS_LIST", Integer.class)).isEqualTo(4);
+    }
+
+    private List<String> export(ExportTable table, int[] after) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshotExporter.exportTable(table, after, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
+import ru.yandex.practicum.filmorate.mapper.*;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.service.ConcurrentLookups;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет, что после записи чтение через кэш не возвращает устаревший фильм.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class,
+        CachingFilmStorage.class,
+        FilmService.class,
+        ConcurrentLookups.class,
+        DirectorService.class,
+        LikesRepository.class,
+        RatingRepository.class,
+        FilmRowMapper.class,
+        RatingRowMapper.class,
+        GenreRowMapper.class,
+        DirectorRowMapper.class,
+        UserRowMapper.class,
+        GenreRepository.class,
+        DirectorRepository.class,
+        UserRepository.class,
+        EventRepository.class,
+        EventRowMapper.class,
+        RecentEventsBuffer.class,
+        FilmResultSetExtractor.class,
+        PopularFilmsIndex.class,
+        RecommendationEngine.class,
+        SimilarFilmsIndex.class,
+        FilmSearchIndex.class,
+        ReferenceDataCache.class
+})
+class CachingFilmStorageTest {
+    private final FilmService filmService;
+    private final DirectorService directorService;
+    private final DirectorRepository directorRepository;
+    private final CachingFilmStorage cachingFilmStorage;
+    private final JdbcTemplate jdbc;
+
+    private Director director;
+    private Film film;
+
+    @BeforeEach
+    void setUp() {
+        director = directorRepository.createDirector(new Director(null, "Director"));
+        film = filmService.createFilm(Film.builder()
+                .name("Cached")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Rating(1, null))
+                .genres(Set.of(new Genre(1, null)))
+                .directors(Set.of(director))
+                .build());
+        // Прогреваем кэш
+        filmService.getFilmById(film.getId());
+        filmService.getFilmById(film.getId());
+    }
+
+    @Test
+    void updateIsVisibleImmediately() {
+        filmService.updateFilm(film.toBuilder()
+                .name("Updated")
+                .mpa(new Rating(2, null))
+                .genres(Set.of(new Genre(2, null)))
+                .build());
+
+        Film loaded = filmService.getFilmById(film.getId());
+        assertThat(loaded.getName()).isEqualTo("Updated");
+        assertThat(loaded.getMpa().getId()).isEqualTo(2);
+        assertThat(loaded.getGenres()).extracting(Genre::getId).containsExactly(2);
+    }
+
+    @Test
+    void directorRenameIsVisibleInCachedFilm() {
+        directorService.updateDirector(new Director(director.getId(), "Renamed"));
+
+        assertThat(filmService.getFilmById(film.getId()).getDirectors())
+                .extracting(Director::getName)
+                .containsExactly("Renamed");
+    }
+
+    @Test
+    void directorDeleteIsVisibleInCachedFilm() {
+        directorService.deleteDirectorById(director.getId());
+
+        assertThat(filmService.getFilmById(film.getId()).getDirectors()).isEmpty();
+    }
+
+    @Test
+    void deletedFilmIsNotServedFromCache() {
+        filmService.deleteFilm(film.getId());
+
+        assertThrows(NotFoundException.class, () -> filmService.getFilmById(film.getId()));
+    }
+
+    @Test
+    void callerCannotModifyCachedFilm() {
+        filmService.getFilmById(film.getId()).setName("Changed outside");
+
+        assertThat(filmService.getFilmById(film.getId()).getName()).isEqualTo("Cached");
+    }
+
+    @Test
+    void preloadedFilmIsServedFromCache() {
+        Film other = filmService.createFilm(film.toBuilder().id(null).name("Preloaded").build());
+        cachingFilmStorage.preload(List.of(other.getId()));
+
+        // Строка удалена в обход хранилища — фильм может прийти только из кэша
+        jdbc.update("DELETE FROM FILMS WHERE FILM_ID = ?", other.getId());
+
+        assertThat(filmService.getFilmById(other.getId()).getName()).isEqualTo("Preloaded");
+    }
+
+    @Test
+    void segmentedLruKeepsRepeatedlyReadEntries() {
+        AtomicLong now = new AtomicLong();
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>(5, 100, now::get);
+        cache.put(1, "hot");
+        cache.get(1);
+        for (int i = 2; i < 20; i++) {
+            cache.put(i, "cold" + i);
+        }
+
+        assertThat(cache.get(1)).isEqualTo("hot");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(17);
+
+        now.set(101);
+        assertThat(cache.get(1)).isNull();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.RatingStorage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferenceDataCacheTest {
+    private static final long INTERVAL_MS = 1000;
+
+    private final AtomicLong now = new AtomicLong();
+    private GenreStorage genreStorage;
+    private DirectorStorage directorStorage;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        genreStorage = mock(GenreStorage.class);
+        RatingStorage ratingStorage = mock(RatingStorage.class);
+        directorStorage = mock(DirectorStorage.class);
+        when(genreStorage.getGenres()).thenReturn(List.of(new Genre(1, "Комедия")));
+        when(ratingStorage.getAllRatings()).thenReturn(List.of(new Rating(1, "G")));
+        when(directorStorage.getDirectors()).thenReturn(Set.of(new Director(1, "Director")));
+        cache = new ReferenceDataCache(genreStorage, ratingStorage, directorStorage, INTERVAL_MS, now::get);
+    }
+
+    @Test
+    void hitDoesNotReload() {
+        assertThat(cache.getGenreById(1).getName()).isEqualTo("Комедия");
+        assertThat(cache.getGenreById(1).getName()).isEqualTo("Комедия");
+
+        verify(genreStorage, times(1)).getGenres();
+        assertThat(cache.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void missReloadsAfterInterval() {
+        cache.getGenres();
+        when(directorStorage.getDirectors())
+                .thenReturn(Set.of(new Director(1, "Director"), new Director(2, "Added")));
+        advance(INTERVAL_MS);
+
+        // Режиссёр добавлен в обход сервиса — промах перечитывает справочники
+        assertThat(cache.getDirectorById(2).getName()).isEqualTo("Added");
+        verify(directorStorage, times(2)).getDirectors();
+        assertThat(cache.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void missesWithinIntervalDoNotReload() {
+        cache.getGenres();
+        advance(INTERVAL_MS);
+
+        assertThrows(NotFoundException.class, () -> cache.getGenreById(99));
+        verify(genreStorage, times(2)).getGenres();
+
+        // Повторные промахи до конца интервала отвечают по текущему снимку
+        for (int i = 0; i < 100; i++) {
+            assertThrows(NotFoundException.class, () -> cache.getGenreById(99));
+        }
+        advance(INTERVAL_MS - 1);
+        assertThrows(NotFoundException.class, () -> cache.getGenreById(99));
+        verify(genreStorage, times(2)).getGenres();
+
+        advance(1);
+        assertThrows(NotFoundException.class, () -> cache.getGenreById(99));
+        verify(genreStorage, times(3)).getGenres();
+        assertThat(cache.getVersion()).isEqualTo(3);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
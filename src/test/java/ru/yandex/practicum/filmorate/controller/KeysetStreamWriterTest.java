@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.service.Paging;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetStreamWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void rejectsPageSizeOutsidePagingLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetStreamWriter(objectMapper, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new KeysetStreamWriter(objectMapper, Paging.MAX_LIMIT + 1));
+        assertDoesNotThrow(() -> new KeysetStreamWriter(objectMapper, Paging.MAX_LIMIT));
+    }
+}
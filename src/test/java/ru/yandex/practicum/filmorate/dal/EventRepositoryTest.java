@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.feed.SavedEventsListener;
+import ru.yandex.practicum.filmorate.mapper.EventRowMapper;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class EventRepositoryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsBatchWhenKeysDoNotMatchEvents() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        ObjectProvider<SavedEventsListener> listeners = mock(ObjectProvider.class);
+        // Драйвер вернул ключ только для первой строки пакета
+        doAnswer(invocation -> {
+            invocation.<KeyHolder>getArgument(2).getKeyList().add(Map.of("EVENT_ID", 1));
+            return new int[]{1, 1};
+        }).when(jdbc).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class));
+        EventRepository repository = new EventRepository(jdbc, mock(EventRowMapper.class),
+                mock(RecentEventsBuffer.class), listeners);
+
+        assertThrows(IllegalStateException.class, () -> repository.addEvents(List.of(event(1), event(2))));
+        verifyNoInteractions(listeners);
+    }
+
+    private static Event event(int entityId) {
+        return Event.builder()
+                .timestamp(System.currentTimeMillis())
+                .userId(1)
+                .eventType("LIKE")
+                .operation("ADD")
+                .entityId(entityId)
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
+import ru.yandex.practicum.filmorate.mapper.*;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ConcurrentLookups;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что чтение фильмов выполняется фиксированным числом запросов,
+ * независимо от количества фильмов, жанров и режиссёров.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class,
+        FilmService.class,
+        ConcurrentLookups.class,
+        LikesRepository.class,
+        RatingRepository.class,
+        FilmRowMapper.class,
+        RatingRowMapper.class,
+        GenreRowMapper.class,
+        DirectorRowMapper.class,
+        UserRowMapper.class,
+        GenreRepository.class,
+        DirectorRepository.class,
+        UserRepository.class,
+        EventRepository.class,
+        EventRowMapper.class,
+        RecentEventsBuffer.class,
+        FilmResultSetExtractor.class,
+        PopularFilmsIndex.class,
+        RecommendationEngine.class,
+        SimilarFilmsIndex.class,
+        FilmSearchIndex.class,
+        ReferenceDataCache.class,
+        FilmQueryCountTest.QueryCounterConfig.class
+})
+class FilmQueryCountTest {
+    private static final AtomicInteger QUERIES = new AtomicInteger();
+
+    private final FilmService filmService;
+    private final UserRepository userRepository;
+    private final DirectorRepository directorRepository;
+    private final PopularFilmsIndex popularFilmsIndex;
+
+    private User user;
+    private User friend;
+    private Director director;
+    private Film film;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.createUser(user("count1"));
+        friend = userRepository.createUser(user("count2"));
+        director = directorRepository.createDirector(new Director(null, "Director"));
+        for (int i = 0; i < 5; i++) {
+            film = filmService.createFilm(Film.builder()
+                    .name("Film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(2000 + i, 1, 1))
+                    .duration(100)
+                    .mpa(new Rating(1, null))
+                    .genres(Set.of(new Genre(1, null), new Genre(2, null)))
+                    .directors(Set.of(director))
+                    .build());
+            filmService.likeFilm(film.getId(), user.getId());
+            filmService.likeFilm(film.getId(), friend.getId());
+        }
+        // Рейтинг общий для всех тестов контекста, поэтому строим его по данным текущей транзакции
+        popularFilmsIndex.rebuild();
+        QUERIES.set(0);
+    }
+
+    @Test
+    void getFilmByIdUsesSingleQuery() {
+        Film loaded = filmService.getFilmById(film.getId());
+
+        assertThat(loaded.getGenres()).hasSize(2);
+        assertThat(loaded.getDirectors()).containsExactly(director);
+        assertThat(QUERIES.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getFilmsUsesSingleQuery() {
+        assertThat(filmService.getFilms()).hasSizeGreaterThanOrEqualTo(5);
+        assertThat(QUERIES.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getTopFilmsUsesSingleQuery() {
+        assertThat(filmService.getTopFilms(3, 1, null)).hasSize(3);
+        assertThat(QUERIES.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getCommonFilmsLoadsFilmsWithSingleQuery() {
+        assertThat(filmService.getCommonFilms(user.getId(), friend.getId())).hasSize(5);
+        // две проверки существования пользователей и один запрос за фильмами
+        assertThat(QUERIES.get()).isEqualTo(3);
+    }
+
+    @Test
+    void getFilmsByDirectorLoadsFilmsWithSingleQuery() {
+        assertThat(filmService.getFilmsByDirector(director.getId(), "likes")).hasSize(5);
+        // режиссёр проверяется по кэшу справочников, в БД уходит только запрос за фильмами
+        assertThat(QUERIES.get()).isEqualTo(1);
+    }
+
+    @Test
+    void searchFilmsUsesSingleQuery() {
+        assertThat(filmService.searchFilms("FILM", "title,director", 10)).hasSize(5);
+        // поиск идёт по индексу в памяти, в БД уходит только запрос за найденными фильмами
+        assertThat(QUERIES.get()).isEqualTo(1);
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@example.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    @TestConfiguration
+    static class QueryCounterConfig {
+        @Bean
+        static BeanPostProcessor queryCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return counting(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection counting(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("prepareStatement") || name.equals("createStatement")) {
+                            QUERIES.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
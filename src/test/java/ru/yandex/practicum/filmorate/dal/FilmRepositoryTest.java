@@ -7,12 +7,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SimilarFilmsIndex;
 import ru.yandex.practicum.filmorate.mapper.*;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ConcurrentLookups;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.time.LocalDate;
@@ -26,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({FilmRepository.class,
         FilmService.class,
+        ConcurrentLookups.class,
         LikesRepository.class,
         LikesRepository.class,
         RatingRepository.class,
@@ -38,7 +48,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
         DirectorRepository.class,
         UserRepository.class,
         EventRepository.class,
-        EventRowMapper.class
+        EventRowMapper.class,
+        RecentEventsBuffer.class,
+        FilmResultSetExtractor.class,
+        PopularFilmsIndex.class,
+        RecommendationEngine.class,
+        SimilarFilmsIndex.class,
+        FilmSearchIndex.class,
+        ReferenceDataCache.class
 })
 class FilmRepositoryTest {
     private static Film film1;
@@ -46,6 +63,7 @@ class FilmRepositoryTest {
     private static Film film3;
     private final FilmRepository filmRepository;
     private final LikesRepository likesRepository;
+    private final UserRepository userRepository;
     private final FilmService filmService;
 
     @BeforeAll
@@ -89,6 +107,18 @@ class FilmRepositoryTest {
         assertThat(filmRepository.getFilms()).isNotEmpty();
     }
 
+    @Test
+    void getFilmsPage() {
+        filmRepository.createFilm(film1);
+        filmRepository.createFilm(film2);
+        filmRepository.createFilm(film3);
+
+        assertThat(filmRepository.getFilmsPage(film1.getId(), 1))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+        assertThat(filmRepository.getFilmsPage(film3.getId(), 10)).isEmpty();
+    }
+
     @Test
     void getFilmById() {
         filmRepository.createFilm(film1);
@@ -105,6 +135,29 @@ class FilmRepositoryTest {
         //Это доделать
     }
 
+    @Test
+    void getTopFilmsSortedByLikes() {
+        filmRepository.createFilm(film1);
+        filmRepository.createFilm(film2);
+        User user = userRepository.createUser(User.builder()
+                .email("top@example.com")
+                .login("TopUser")
+                .name("top")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        likesRepository.addLike(film2.getId(), user.getId());
+
+        assertThat(likesRepository.getLikeCountForFilm(film2.getId())).isEqualTo(1);
+        assertThat(filmRepository.getTopFilms(1, null, 2022))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+
+        likesRepository.deleteLike(film2.getId(), user.getId());
+        likesRepository.deleteLike(film2.getId(), user.getId());
+        assertThat(likesRepository.getLikeCountForFilm(film2.getId())).isZero();
+        assertThat(filmRepository.getTopFilms(10, null, 2021)).isEmpty();
+    }
+
     @Test
     void create() {
         filmRepository.createFilm(film1);
@@ -144,6 +197,15 @@ class FilmRepositoryTest {
         assertThrows(NotFoundException.class, () -> filmRepository.getFilmById(1));
     }
 
+    @Test
+    void searchRejectsLimitOutOfRange() {
+        filmRepository.createFilm(film1);
+
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("film", "title", -1));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("film", "title", 0));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("film", "title", 1001));
+    }
+
     @Test
     void getLikedFilmsByUser() {
         Set<Integer> likedFilms = likesRepository.getLikedFilmsByUser(1);
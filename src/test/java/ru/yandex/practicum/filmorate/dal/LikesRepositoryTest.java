@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.mapper.FilmRowMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({LikesRepository.class, FilmRowMapper.class})
+class LikesRepositoryTest {
+    @Autowired
+    private LikesRepository likesRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private int filmId;
+    private int firstUserId;
+    private int secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        filmId = jdbc.queryForObject("""
+                SELECT FILM_ID FROM FINAL TABLE (
+                    INSERT INTO FILMS (FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID)
+                    VALUES ('film', 'description', DATE '2000-01-01', 100, 1))
+                """, Integer.class);
+        firstUserId = insertUser("first");
+        secondUserId = insertUser("second");
+    }
+
+    @Test
+    void applyLikesInOrderAndAdjustsCount() {
+        likesRepository.addLike(filmId, secondUserId);
+
+        boolean[] changed = likesRepository.applyLikes(List.of(
+                        new int[]{filmId, firstUserId},
+                        new int[]{filmId, firstUserId},
+                        new int[]{filmId, secondUserId},
+                        new int[]{filmId, secondUserId},
+                        new int[]{filmId, secondUserId}),
+                new boolean[]{true, true, true, false, false});
+
+        assertThat(changed).containsExactly(true, false, false, true, false);
+        assertThat(likesRepository.getLikedFilmsByUser(firstUserId)).containsExactly(filmId);
+        assertThat(likesRepository.getLikedFilmsByUser(secondUserId)).isEmpty();
+        assertThat(likesRepository.getLikeCountForFilm(filmId)).isEqualTo(1);
+    }
+
+    @Test
+    void applyLikesAddAndRemoveSameLike() {
+        boolean[] changed = likesRepository.applyLikes(List.of(
+                        new int[]{filmId, firstUserId},
+                        new int[]{filmId, firstUserId}),
+                new boolean[]{true, false});
+
+        assertThat(changed).containsExactly(true, true);
+        assertThat(likesRepository.getLikeCountForFilm(filmId)).isZero();
+    }
+
+    private int insertUser(String login) {
+        return jdbc.queryForObject("""
+                SELECT USER_ID FROM FINAL TABLE (
+                    INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY)
+                    VALUES (?, ?, ?, DATE '1990-01-01'))
+                """, Integer.class, login + "@example.com", login, login);
+    }
+}
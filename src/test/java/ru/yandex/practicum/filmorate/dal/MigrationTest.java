@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationTest {
+
+    @Test
+    void migratesDatabaseCreatedByLegacySchema() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:legacy-schema;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("db/legacy-schema.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO RATING (RATING_ID, RATING_NAME) VALUES (1, 'G')");
+        jdbc.update("INSERT INTO USERS (USER_ID, EMAIL, LOGIN, NAME, BIRTHDAY) "
+                + "VALUES (1, 'first@example.com', 'first', 'first', DATE '1990-01-01'), "
+                + "(2, 'second@example.com', 'second', 'second', DATE '1990-01-01')");
+        jdbc.update("INSERT INTO FILMS (FILM_ID, FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID) "
+                + "VALUES (1, 'liked', 'description', DATE '2000-01-01', 100, 1), "
+                + "(2, 'unliked', 'description', DATE '2000-01-01', 100, 1)");
+        jdbc.update("INSERT INTO LIKE_LIST (FILM_ID, USER_ID) VALUES (1, 1), (1, 2)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertThat(jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = 1", Integer.class))
+                .isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = 2", Integer.class))
+                .isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME = 'FILMS_LIKES_COUNT_IDX'", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM GENRES", Integer.class)).isEqualTo(6);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.mapper.ReviewRowMapper;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({ReviewRepository.class, ReviewRowMapper.class})
+class ReviewRepositoryTest {
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private int reviewId;
+    private int userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = insertUser("voter");
+        int filmId = jdbc.queryForObject("""
+                SELECT FILM_ID FROM FINAL TABLE (
+                    INSERT INTO FILMS (FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID)
+                    VALUES ('film', 'description', DATE '2000-01-01', 100, 1))
+                """, Integer.class);
+        reviewId = reviewRepository.createReview(Review.builder()
+                .userId(userId)
+                .filmId(filmId)
+                .content("content")
+                .isPositive(true)
+                .build()).getReviewId();
+    }
+
+    @Test
+    void voteTransitionsReturnUsefulDelta() {
+        assertThat(reviewRepository.setVote(reviewId, userId, true)).isEqualTo(1);
+        assertThat(reviewRepository.setVote(reviewId, userId, true)).isZero();
+        assertThat(reviewRepository.setVote(reviewId, userId, false)).isEqualTo(-2);
+        assertThat(reviewRepository.removeVote(reviewId, userId, true)).isZero();
+        assertThat(reviewRepository.removeVote(reviewId, userId, false)).isEqualTo(1);
+        assertThat(reviewRepository.removeVote(reviewId, userId, false)).isZero();
+    }
+
+    @Test
+    void addUsefulAndReconcile() {
+        int otherId = insertUser("other");
+        reviewRepository.setVote(reviewId, userId, true);
+        reviewRepository.setVote(reviewId, otherId, true);
+
+        reviewRepository.addUseful(Map.of(reviewId, 5L));
+        assertThat(reviewRepository.getReviewById(reviewId).getUseful()).isEqualTo(5);
+
+        assertThat(reviewRepository.reconcileUseful()).isEqualTo(1);
+        assertThat(reviewRepository.getReviewById(reviewId).getUseful()).isEqualTo(2);
+        assertThat(reviewRepository.reconcileUseful()).isZero();
+    }
+
+    @Test
+    void getReviewsByIdsAndRanks() {
+        List<Integer> ranked = new ArrayList<>();
+        reviewRepository.forEachRank((id, filmId, useful) -> ranked.add(id));
+        assertThat(ranked).contains(reviewId);
+
+        assertThat(reviewRepository.getReviewsByIds(List.of(reviewId, reviewId + 100)))
+                .extracting(Review::getReviewId)
+                .containsExactly(reviewId);
+    }
+
+    private int insertUser(String login) {
+        return jdbc.queryForObject("""
+                SELECT USER_ID FROM FINAL TABLE (
+                    INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY)
+                    VALUES (?, ?, ?, DATE '1990-01-01'))
+                """, Integer.class, login + "@example.com", login, login);
+    }
+}
@@ -7,12 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.UserRowMapper;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +30,8 @@ class UserRepositoryTest {
     private static User user2;
     private static User user3;
     private final UserRepository userRepository;
+    private final UserRowMapper userRowMapper;
+    private final JdbcTemplate jdbc;
     @Autowired
     private FriendshipRepository friendshipRepository;
 
@@ -64,6 +67,51 @@ class UserRepositoryTest {
         assertThat(userRepository.getUsers()).isNotEmpty();
     }
 
+    @Test
+    void getUsersPage() {
+        userRepository.createUser(user1);
+        userRepository.createUser(user2);
+        userRepository.createUser(user3);
+
+        List<User> first = userRepository.getUsersPage(0, 2);
+        assertThat(first).hasSize(2);
+        List<User> next = userRepository.getUsersPage(first.get(1).getId(), 2);
+        assertThat(next).extracting(User::getId)
+                .doesNotContainAnyElementsOf(first.stream().map(User::getId).toList())
+                .allMatch(id -> id > first.get(1).getId());
+        assertThat(userRepository.getUsersPage(user3.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void getUsersByIds() {
+        userRepository.createUser(user1);
+        userRepository.createUser(user2);
+        userRepository.createUser(user3);
+
+        assertThat(userRepository.getUsersByIds(new int[]{user3.getId(), user1.getId()}))
+                .extracting(User::getId)
+                .containsExactly(user1.getId(), user3.getId());
+        // Три id дополняются до четырёх плейсхолдеров повтором последнего
+        assertThat(userRepository.getUsersByIds(new int[]{user2.getId(), user3.getId(), user1.getId()}))
+                .extracting(User::getId)
+                .containsExactly(user1.getId(), user2.getId(), user3.getId());
+        assertThat(userRepository.getUsersByIds(new int[0])).isEmpty();
+    }
+
+    @Test
+    void getUsersByIdsInChunks() {
+        userRepository.createUser(user1);
+        userRepository.createUser(user2);
+        userRepository.createUser(user3);
+        // Отдельный экземпляр: бин репозитория общий для закэшированного контекста
+        UserRepository chunked = new UserRepository(jdbc, userRowMapper);
+        chunked.setInChunkSize(2);
+
+        assertThat(chunked.getUsersByIds(new int[]{user3.getId(), user1.getId(), user2.getId()}))
+                .extracting(User::getId)
+                .containsExactly(user1.getId(), user2.getId(), user3.getId());
+    }
+
     @Test
     void getUserById() {
         userRepository.createUser(user1);
@@ -109,29 +157,14 @@ class UserRepositoryTest {
         assertThrows(NotFoundException.class, () -> userRepository.getUserById(1));
     }
 
-    @Test
-    void getCommonFriends() {
-        userRepository.createUser(user1);
-        userRepository.createUser(user2);
-        userRepository.createUser(user3);
-
-        friendshipRepository.addFriend(user1.getId(), user3.getId());
-        friendshipRepository.addFriend(user1.getId(), user2.getId());
-        friendshipRepository.addFriend(user2.getId(), user3.getId());
-        assertThat(friendshipRepository.getCommonFriends(user1.getId(), user2.getId()))
-                .contains(userRepository.getUserById(user3.getId()));
-    }
-
     @Test
     void addFriend() {
         userRepository.createUser(user1);
         userRepository.createUser(user2);
         userRepository.createUser(user3);
         friendshipRepository.addFriend(user1.getId(), user3.getId());
-        Collection<User> users = friendshipRepository.getAllUserFriends(user1.getId());
-        assertThat(users).contains(userRepository.getUserById(user3.getId()));
-        users = friendshipRepository.getAllUserFriends(user3.getId());
-        assertThat(users).doesNotContain(userRepository.getUserById(user1.getId()));
+        assertThat(friendIds(user1.getId())).containsExactly(user3.getId());
+        assertThat(friendIds(user3.getId())).isEmpty();
     }
 
     @Test
@@ -141,20 +174,29 @@ class UserRepositoryTest {
         friendshipRepository.addFriend(user1.getId(), user2.getId());
         userRepository.createUser(user3);
         friendshipRepository.deleteFriend(user1.getId(), user2.getId());
-        Collection<User> users = friendshipRepository.getAllUserFriends(user1.getId());
-        assertThat(users).doesNotContain(userRepository.getUserById(user2.getId()));
+        assertThat(friendIds(user1.getId())).doesNotContain(user2.getId());
     }
 
     @Test
-    void getAllUserFriends() {
+    void forEachFriendship() {
         userRepository.createUser(user1);
         userRepository.createUser(user2);
         userRepository.createUser(user3);
         friendshipRepository.addFriend(user1.getId(), user2.getId());
-        friendshipRepository.addFriend(user1.getId(), user3.getId());
-        Collection<User> users = friendshipRepository.getAllUserFriends(user1.getId());
-        assertThat(users).containsAll(
-                List.of(userRepository.getUserById(user2.getId()), userRepository.getUserById(user3.getId()))
-        );
+        friendshipRepository.addFriend(user3.getId(), user1.getId());
+
+        List<List<Integer>> pairs = new ArrayList<>();
+        friendshipRepository.forEachFriendship((userId, friendId) -> pairs.add(List.of(userId, friendId)));
+        assertThat(pairs).contains(List.of(user1.getId(), user2.getId()), List.of(user3.getId(), user1.getId()));
+    }
+
+    private List<Integer> friendIds(int userId) {
+        List<Integer> friends = new ArrayList<>();
+        friendshipRepository.forEachFriendship((id, friendId) -> {
+            if (id == userId) {
+                friends.add(friendId);
+            }
+        });
+        return friends;
     }
-}
\ No newline at end of file
+}
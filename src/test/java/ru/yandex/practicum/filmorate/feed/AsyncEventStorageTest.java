@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+import ru.yandex.practicum.filmorate.dal.status.EventType;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AsyncEventStorageTest {
+    private final List<List<Event>> batches = new CopyOnWriteArrayList<>();
+    private AsyncEventStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        EventRepository eventRepository = mock(EventRepository.class);
+        doAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<Event>>getArgument(0)));
+            return null;
+        }).when(eventRepository).addEvents(anyList());
+        // Интервал большой, чтобы сброс по таймеру не мешал проверкам
+        storage = new AsyncEventStorage(eventRepository, 3, 60_000, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        storage.close();
+    }
+
+    @Test
+    void writesInBatchesKeepingOrder() {
+        for (int i = 1; i <= 7; i++) {
+            storage.addEvent(1, EventType.LIKE, EventOperation.ADD, i);
+        }
+        storage.flush();
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().flatMap(List::stream).map(Event::getEntityId))
+                .containsExactly(1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    void writesSynchronouslyAfterClose() throws InterruptedException {
+        storage.close();
+        batches.clear();
+        for (int i = 1; i <= 12; i++) {
+            storage.addEvent(1, EventType.FRIEND, EventOperation.ADD, i);
+        }
+
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(12);
+    }
+
+    @Test
+    void writesInsideTransactionWithoutQueue() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            storage.addEvent(1, EventType.LIKE, EventOperation.ADD, 1);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst()).extracting(Event::getEntityId).containsExactly(1);
+    }
+
+    @Test
+    void flushesQueueOnClose() throws InterruptedException {
+        storage.addEvent(1, EventType.REVIEW, EventOperation.UPDATE, 1);
+        storage.addEvent(2, EventType.REVIEW, EventOperation.REMOVE, 2);
+
+        storage.close();
+
+        assertThat(batches.stream().flatMap(List::stream).map(Event::getUserId)).containsExactly(1, 2);
+    }
+}
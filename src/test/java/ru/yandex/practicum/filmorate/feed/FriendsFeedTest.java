@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.storage.EventStorage;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class FriendsFeedTest {
+    private final Map<Integer, List<Event>> eventsByAuthor = new HashMap<>();
+    private final Map<Integer, List<Integer>> friends = new HashMap<>();
+    private EventStorage eventStorage;
+    private SocialGraph socialGraph;
+    private FriendsFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        eventStorage = mock(EventStorage.class);
+        FriendshipStorage friendshipStorage = mock(FriendshipStorage.class);
+        when(eventStorage.getEventsBefore(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int beforeId = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            List<Event> older = eventsByAuthor.getOrDefault(invocation.<Integer>getArgument(0), List.of()).stream()
+                    .filter(event -> event.getEventId() < beforeId)
+                    .toList();
+            return older.subList(Math.max(0, older.size() - limit), older.size());
+        });
+        when(eventStorage.getLastEventIds()).thenAnswer(invocation -> {
+            Map<Integer, Integer> lastIds = new HashMap<>();
+            eventsByAuthor.forEach((author, events) -> lastIds.put(author, events.getLast().getEventId()));
+            return lastIds;
+        });
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> consumer = invocation.getArgument(0);
+            friends.forEach((userId, friendIds) -> friendIds.forEach(friendId -> consumer.accept(userId, friendId)));
+            return null;
+        }).when(friendshipStorage).forEachFriendship(any());
+        socialGraph = new SocialGraph(friendshipStorage);
+
+        // У пользователя 3 больше одного подписчика — его события берутся при чтении
+        friends.put(1, List.of(2, 3, 4));
+        friends.put(5, List.of(3));
+        save(2, 1, 4, 7);
+        save(3, 2, 5, 8);
+        save(4, 3, 6, 9);
+        feed = new FriendsFeed(eventStorage, socialGraph, 5, 10, 1);
+    }
+
+    @Test
+    void mergesEventsOfFollowedUsers() {
+        assertThat(ids(feed.getFeed(1, null, 4))).containsExactly(6, 7, 8, 9);
+        assertThat(ids(feed.getFeed(1, 6, 3))).containsExactly(3, 4, 5);
+        assertThat(ids(feed.getFeed(5, null, 10))).containsExactly(2, 5, 8);
+    }
+
+    @Test
+    void pushesNewEventsToLoadedInboxesAndPullsCelebrities() {
+        feed.getFeed(1, null, 3);
+
+        feed.onEventsSaved(save(2, 10));
+        feed.onEventsSaved(save(3, 11));
+
+        assertThat(ids(feed.getFeed(1, null, 3))).containsExactly(9, 10, 11);
+    }
+
+    @Test
+    void loadsOnlyAuthorsThatReachThePage() {
+        List<Integer> many = new ArrayList<>();
+        for (int author = 100; author < 1100; author++) {
+            many.add(author);
+            save(author, author);
+        }
+        friends.put(6, many);
+
+        assertThat(ids(feed.getFeed(6, 1100, 2))).containsExactly(1098, 1099);
+        verify(eventStorage, times(2)).getEventsBefore(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void rebuildsInboxAfterUnfollow() {
+        feed.getFeed(1, null, 3);
+
+        socialGraph.deleteFriend(1, 3);
+        socialGraph.deleteFriend(1, 4);
+        feed.onFollowChanged(1);
+
+        assertThat(ids(feed.getFeed(1, null, 3))).containsExactly(1, 4, 7);
+    }
+
+    private List<Event> save(int authorId, int... eventIds) {
+        List<Event> saved = new ArrayList<>();
+        for (int eventId : eventIds) {
+            saved.add(Event.builder()
+                    .timestamp(eventId)
+                    .userId(authorId)
+                    .eventType("LIKE")
+                    .operation("ADD")
+                    .eventId(eventId)
+                    .entityId(eventId)
+                    .build());
+        }
+        eventsByAuthor.computeIfAbsent(authorId, k -> new ArrayList<>()).addAll(saved);
+        return saved;
+    }
+
+    private static List<Integer> ids(List<Event> events) {
+        return events.stream().map(Event::getEventId).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.feed;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentEventsBufferTest {
+    private final RecentEventsBuffer buffer = new RecentEventsBuffer(3, 2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesShortHistoryEntirelyFromBuffer() {
+        IntFunction<List<Event>> loader = loader(2, 1);
+
+        assertThat(ids(buffer.latest(1, Integer.MAX_VALUE, loader).orElseThrow())).containsExactly(1, 2);
+        buffer.onEventsSaved(List.of(event(1, 5)));
+        assertThat(ids(buffer.since(1, 2, 10, loader).orElseThrow())).containsExactly(5);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void keepsOnlyLatestEventsAfterOverflow() {
+        IntFunction<List<Event>> loader = loader(3, 1);
+        buffer.latest(1, 1, loader);
+
+        buffer.onEventsSaved(List.of(event(1, 4), event(2, 5), event(1, 6)));
+
+        assertThat(ids(buffer.latest(1, 3, loader).orElseThrow())).containsExactly(3, 4, 6);
+        assertThat(ids(buffer.since(1, 2, 10, loader).orElseThrow())).containsExactly(3, 4, 6);
+        assertThat(buffer.since(1, 1, 10, loader)).isEmpty();
+        assertThat(buffer.latest(1, 4, loader)).isEmpty();
+    }
+
+    @Test
+    void ordersLateAppendsAndSkipsDuplicates() {
+        IntFunction<List<Event>> loader = loader(1, 1);
+        buffer.latest(1, 1, loader);
+
+        buffer.onEventsSaved(List.of(event(1, 9), event(1, 7), event(1, 9)));
+
+        assertThat(ids(buffer.latest(1, 3, loader).orElseThrow())).containsExactly(1, 7, 9);
+    }
+
+    @Test
+    void evictsLeastRecentlyReadUsers() {
+        buffer.latest(1, 1, loader(1, 1));
+        buffer.latest(2, 1, loader(1, 2));
+        buffer.latest(3, 1, loader(1, 3));
+        buffer.latest(1, 1, loader(1, 1));
+
+        assertThat(loads).hasValue(4);
+    }
+
+    // Загрузчик отдаёт события с id 1..count по убыванию, как запрос последних событий
+    private IntFunction<List<Event>> loader(int count, int userId) {
+        return limit -> {
+            loads.incrementAndGet();
+            return IntStream.iterate(count, id -> id >= 1, id -> id - 1)
+                    .limit(limit)
+                    .mapToObj(id -> event(userId, id))
+                    .toList();
+        };
+    }
+
+    private static Event event(int userId, int eventId) {
+        return Event.builder()
+                .timestamp(eventId)
+                .userId(userId)
+                .eventType("LIKE")
+                .operation("ADD")
+                .eventId(eventId)
+                .entityId(eventId)
+                .build();
+    }
+
+    private static List<Integer> ids(List<Event> events) {
+        return events.stream().map(Event::getEventId).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class FriendSuggestionsTest {
+    private final List<int[]> friendships = new ArrayList<>();
+    private final List<int[]> likes = new ArrayList<>();
+    private SocialGraph socialGraph;
+    private RecommendationEngine recommendationEngine;
+    private FriendSuggestions suggestions;
+
+    @BeforeEach
+    void setUp() {
+        FriendshipStorage friendshipStorage = mock(FriendshipStorage.class);
+        LikesStorage likesStorage = mock(LikesStorage.class);
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> consumer = invocation.getArgument(0);
+            friendships.forEach(pair -> consumer.accept(pair[0], pair[1]));
+            return null;
+        }).when(friendshipStorage).forEachFriendship(any());
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> consumer = invocation.getArgument(0);
+            likes.forEach(pair -> consumer.accept(pair[0], pair[1]));
+            return null;
+        }).when(likesStorage).forEachLike(any());
+        socialGraph = new SocialGraph(friendshipStorage);
+        recommendationEngine = new RecommendationEngine(likesStorage);
+        suggestions = new FriendSuggestions(socialGraph, recommendationEngine, 10);
+
+        // Друзья пользователя 1 — 2, 3 и 4; пользователь 5 дружит с 2 и 3, 6 — с 4, 7 — со 2
+        friend(1, 2, 3, 4);
+        friend(2, 5, 7, 1);
+        friend(3, 5);
+        friend(4, 6, 2);
+        // С пользователем 7 у первого два общих фильма — это поднимает его над 6
+        like(1, 10, 11);
+        like(7, 10, 11, 12);
+        like(6, 12);
+    }
+
+    @Test
+    void ranksByMutualFriendsThenSharedLikes() {
+        assertThat(suggestions.getSuggestions(1, 10)).containsExactly(5, 7, 6);
+        assertThat(suggestions.getSuggestions(1, 1)).containsExactly(5);
+    }
+
+    @Test
+    void userWithoutFriendsGetsNothing() {
+        assertThat(suggestions.getSuggestions(5, 10)).isEmpty();
+    }
+
+    @Test
+    void recomputesAfterInvalidationAndRefresh() {
+        assertThat(suggestions.getSuggestions(1, 10)).containsExactly(5, 7, 6);
+
+        socialGraph.addFriend(1, 5);
+        assertThat(suggestions.getSuggestions(1, 10)).containsExactly(5, 7, 6);
+        suggestions.invalidate(1);
+        assertThat(suggestions.getSuggestions(1, 10)).containsExactly(7, 6);
+
+        socialGraph.addFriend(3, 6);
+        suggestions.refresh();
+        assertThat(suggestions.getSuggestions(1, 10)).containsExactly(6, 7);
+    }
+
+    @Test
+    void samplesLargeFriendLists() {
+        for (int friendId = 100; friendId < 1100; friendId++) {
+            friend(1, friendId);
+            friend(friendId, 50);
+        }
+
+        assertThat(suggestions.getSuggestions(1, 1)).containsExactly(50);
+    }
+
+    private void friend(int userId, int... friendIds) {
+        for (int friendId : friendIds) {
+            friendships.add(new int[]{userId, friendId});
+        }
+    }
+
+    private void like(int userId, int... filmIds) {
+        for (int filmId : filmIds) {
+            likes.add(new int[]{userId, filmId});
+        }
+    }
+}
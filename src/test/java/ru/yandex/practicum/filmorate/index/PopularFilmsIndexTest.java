@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PopularFilmsIndexTest {
+    private LikesStorage likesStorage;
+    private PopularFilmsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        FilmStorage filmStorage = mock(FilmStorage.class);
+        likesStorage = mock(LikesStorage.class);
+        when(filmStorage.getFilms()).thenReturn(List.of(film(1), film(2)));
+        when(likesStorage.getLikeCounts()).thenReturn(Map.of(2, 1));
+        index = new PopularFilmsIndex(filmStorage, likesStorage);
+        index.rebuild();
+    }
+
+    @Test
+    void appliesDeltaWhenNotRebuiltSinceWrite() {
+        long generation = index.generation();
+        index.addLikes(1, 2, generation);
+
+        assertThat(index.getLikes(1)).isEqualTo(2);
+        assertThat(index.getTopFilmIds(10, null, null)).containsExactly(1, 2);
+        verify(likesStorage, never()).getLikeCountForFilm(anyInt());
+    }
+
+    @Test
+    void doesNotCountLikeTwiceWhenRebuildSawIt() {
+        long generation = index.generation();
+        // Лайк зафиксирован в БД, перестройка его уже посчитала, а разность приходит после неё
+        when(likesStorage.getLikeCounts()).thenReturn(Map.of(1, 1, 2, 1));
+        when(likesStorage.getLikeCountForFilm(1)).thenReturn(1);
+        index.rebuild();
+        index.addLikes(1, 1, generation);
+
+        assertThat(index.getLikes(1)).isEqualTo(1);
+    }
+
+    private static Film film(int id) {
+        return Film.builder()
+                .id(id)
+                .name("Film " + id)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .genres(Set.of())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.LikesStorage;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class RecommendationEngineTest {
+    private RecommendationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        LikesStorage likesStorage = mock(LikesStorage.class);
+        // Пользователь 1: фильмы 1, 2, 3; пользователь 2 похож сильнее всех, пользователь 3 — слабее
+        int[][] likes = {{1, 1}, {1, 2}, {1, 3}, {2, 1}, {2, 2}, {2, 3}, {2, 4}, {3, 1}, {3, 5}, {3, 6}, {3, 7}};
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> consumer = invocation.getArgument(0);
+            for (int[] like : likes) {
+                consumer.accept(like[0], like[1]);
+            }
+            return null;
+        }).when(likesStorage).forEachLike(any());
+        engine = new RecommendationEngine(likesStorage);
+        engine.rebuild();
+    }
+
+    @Test
+    void recommendsFilmsOfMostSimilarUsersFirst() {
+        assertThat(engine.recommend(1, 10)).containsExactly(4, 5, 6, 7);
+    }
+
+    @Test
+    void doesNotRecommendAlreadyLikedFilms() {
+        engine.addLike(1, 4);
+
+        assertThat(engine.recommend(1, 10)).doesNotContain(1, 2, 3, 4);
+    }
+
+    @Test
+    void updatesIncrementally() {
+        engine.removeLike(2, 4);
+        engine.addLike(4, 1);
+        engine.addLike(4, 2);
+        engine.addLike(4, 8);
+
+        assertThat(engine.recommend(1, 1)).containsExactly(8);
+
+        engine.removeFilm(8);
+        engine.removeUser(3);
+        assertThat(engine.recommend(1, 10)).isEmpty();
+    }
+
+    @Test
+    void scansLikesAcrossWholeIdRange() {
+        // У пользователя 10 больше лайков, чем просматривается за запрос; общий с 11 фильм — с наименьшим id
+        for (int filmId = 101; filmId <= 500; filmId++) {
+            engine.addLike(10, filmId);
+        }
+        engine.addLike(11, 101);
+        engine.addLike(11, 1000);
+
+        assertThat(engine.recommend(10, 10)).containsExactly(1000);
+    }
+
+    @Test
+    void userWithoutLikesGetsNothing() {
+        assertThat(engine.recommend(42, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarFilmsIndexTest {
+
+    @Test
+    void keepsNeighboursOrderedBySimilarity() {
+        // Фильм 1 чаще всего лайкают вместе с фильмом 2, реже — с фильмом 3, фильм 4 ни с чем не связан
+        SimilarFilmsIndex.Model model = SimilarFilmsIndex.build(likes(
+                new int[]{1, 1}, new int[]{1, 2}, new int[]{1, 3},
+                new int[]{2, 1}, new int[]{2, 2},
+                new int[]{3, 1}, new int[]{3, 2},
+                new int[]{4, 3}, new int[]{5, 4}));
+
+        assertThat(model.filmIds()).containsExactly(1, 2, 3, 4);
+        assertThat(neighbours(model, 0)).containsExactly(2, 3);
+        assertThat(neighbours(model, 3)).isEmpty();
+        assertThat(model.scores()[model.offsets()[0]]).isGreaterThan(model.scores()[model.offsets()[0] + 1]);
+    }
+
+    @Test
+    void emptyLikesGiveEmptyModel() {
+        SimilarFilmsIndex.Model model = SimilarFilmsIndex.build(likes());
+
+        assertThat(model.filmIds()).isEmpty();
+        assertThat(model.offsets()).containsExactly(0);
+    }
+
+    static Consumer<BiConsumer<Integer, Integer>> likes(int[]... pairs) {
+        return consumer -> {
+            for (int[] pair : pairs) {
+                consumer.accept(pair[0], pair[1]);
+            }
+        };
+    }
+
+    private static int[] neighbours(SimilarFilmsIndex.Model model, int index) {
+        return Arrays.copyOfRange(model.neighbours(), model.offsets()[index], model.offsets()[index + 1]);
+    }
+}
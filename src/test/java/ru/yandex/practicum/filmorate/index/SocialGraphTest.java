@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SocialGraphTest {
+    private SocialGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        FriendshipStorage friendshipStorage = mock(FriendshipStorage.class);
+        int[][] friendships = {{1, 3}, {1, 2}, {1, 5}, {2, 3}, {2, 5}, {4, 1}};
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> consumer = invocation.getArgument(0);
+            for (int[] pair : friendships) {
+                consumer.accept(pair[0], pair[1]);
+            }
+            return null;
+        }).when(friendshipStorage).forEachFriendship(any());
+        graph = new SocialGraph(friendshipStorage);
+        graph.rebuild();
+    }
+
+    @Test
+    void keepsFriendsAndFollowersSorted() {
+        assertThat(graph.getFriendIds(1)).containsExactly(2, 3, 5);
+        assertThat(graph.getFollowerIds(3)).containsExactly(1, 2);
+        assertThat(graph.getFollowerCount(1)).isEqualTo(1);
+        assertThat(graph.getFriendIds(42)).isEmpty();
+    }
+
+    @Test
+    void intersectsFriendLists() {
+        assertThat(graph.getCommonFriendIds(1, 2)).containsExactly(3, 5);
+        assertThat(graph.getCommonFriendIds(1, 4)).isEmpty();
+    }
+
+    @Test
+    void updatesIncrementally() {
+        graph.addFriend(4, 5);
+        graph.deleteFriend(1, 3);
+
+        assertThat(graph.getCommonFriendIds(1, 4)).containsExactly(5);
+        assertThat(graph.getFollowerIds(5)).containsExactly(1, 2, 4);
+        assertThat(graph.isFriend(1, 3)).isFalse();
+
+        graph.removeUser(5);
+        assertThat(graph.getFriendIds(1)).containsExactly(2);
+        assertThat(graph.getFollowerCount(5)).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.review;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReviewVotesTest {
+    private ReviewStorage reviewStorage;
+    private ReviewVotes reviewVotes;
+
+    @BeforeEach
+    void setUp() {
+        reviewStorage = mock(ReviewStorage.class);
+        reviewVotes = new ReviewVotes(reviewStorage, mock(TopReviewsIndex.class));
+    }
+
+    @Test
+    void concurrentVotesAreFlushedInOneBatch() {
+        when(reviewStorage.setVote(anyInt(), anyInt(), anyBoolean())).thenReturn(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int userId = 0; userId < 1000; userId++) {
+                int voter = userId;
+                executor.submit(() -> reviewVotes.like(1, voter));
+            }
+        }
+
+        assertThat(reviewVotes.withPending(review(1, 3)).getUseful()).isEqualTo(1003);
+        reviewVotes.flush();
+        verify(reviewStorage).addUseful(Map.of(1, 1000L));
+        assertThat(reviewVotes.withPending(review(1, 1003)).getUseful()).isEqualTo(1003);
+    }
+
+    @Test
+    void repeatedVoteDoesNotChangeUseful() {
+        when(reviewStorage.setVote(1, 2, false)).thenReturn(-2, 0);
+        when(reviewStorage.removeVote(1, 2, true)).thenReturn(0);
+
+        reviewVotes.dislike(1, 2);
+        reviewVotes.dislike(1, 2);
+        reviewVotes.removeLike(1, 2);
+
+        assertThat(reviewVotes.withPending(review(1, 1)).getUseful()).isEqualTo(-1);
+    }
+
+    @Test
+    void failedFlushKeepsDeltas() {
+        when(reviewStorage.setVote(anyInt(), anyInt(), anyBoolean())).thenReturn(1);
+        doThrow(new DataAccessResourceFailureException("нет соединения")).when(reviewStorage).addUseful(anyMap());
+        reviewVotes.like(1, 2);
+
+        reviewVotes.flush();
+
+        assertThat(reviewVotes.withPending(review(1, 0)).getUseful()).isEqualTo(1);
+    }
+
+    @Test
+    void forgottenReviewIsNotFlushed() {
+        when(reviewStorage.setVote(anyInt(), anyInt(), anyBoolean())).thenReturn(1);
+        reviewVotes.like(1, 2);
+        reviewVotes.forget(1);
+
+        reviewVotes.flush();
+
+        verify(reviewStorage, never()).addUseful(anyMap());
+    }
+
+    @Test
+    void reconcileFlushesFirst() {
+        when(reviewStorage.setVote(anyInt(), anyInt(), anyBoolean())).thenReturn(1);
+        reviewVotes.like(1, 2);
+
+        reviewVotes.reconcile();
+
+        var order = inOrder(reviewStorage);
+        order.verify(reviewStorage).addUseful(Map.of(1, 1L));
+        order.verify(reviewStorage).reconcileUseful();
+    }
+
+    private static Review review(int reviewId, int useful) {
+        return Review.builder().reviewId(reviewId).useful(useful).build();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.review;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.ReviewStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TopReviewsIndexTest {
+    private final List<int[]> reviews = new ArrayList<>();
+    private TopReviewsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ReviewStorage reviewStorage = mock(ReviewStorage.class);
+        doAnswer(invocation -> {
+            ReviewStorage.RankConsumer consumer = invocation.getArgument(0);
+            reviews.forEach(review -> consumer.accept(review[0], review[1], review[2]));
+            return null;
+        }).when(reviewStorage).forEachRank(any());
+        index = new TopReviewsIndex(reviewStorage);
+
+        // Отзывы 1–3 к фильму 10, отзыв 4 — к фильму 20
+        review(1, 10, 5);
+        review(2, 10, 7);
+        review(3, 10, 5);
+        review(4, 20, 6);
+    }
+
+    @Test
+    void ordersByUsefulThenId() {
+        assertThat(ids(index.getTop(null, 10, null, null))).containsExactly(2, 4, 1, 3);
+        assertThat(ids(index.getTop(10, 10, null, null))).containsExactly(2, 1, 3);
+        assertThat(ids(index.getTop(30, 10, null, null))).isEmpty();
+    }
+
+    @Test
+    void pagesByCursor() {
+        List<TopReviewsIndex.Entry> first = index.getTop(10, 2, null, null);
+        assertThat(ids(first)).containsExactly(2, 1);
+
+        TopReviewsIndex.Entry last = first.getLast();
+        assertThat(ids(index.getTop(10, 2, last.useful(), last.reviewId()))).containsExactly(3);
+    }
+
+    @Test
+    void votesAndChangesReorder() {
+        index.addUseful(3, 3);
+        index.putReview(5, 20, 0);
+        index.removeReview(2);
+
+        assertThat(ids(index.getTop(null, 10, null, null))).containsExactly(3, 4, 1, 5);
+        assertThat(index.getTop(10, 1, null, null).getFirst().useful()).isEqualTo(8);
+    }
+
+    private void review(int reviewId, int filmId, int useful) {
+        reviews.add(new int[]{reviewId, filmId, useful});
+    }
+
+    private static List<Integer> ids(List<TopReviewsIndex.Entry> entries) {
+        return entries.stream().map(TopReviewsIndex.Entry::reviewId).toList();
+    }
+}
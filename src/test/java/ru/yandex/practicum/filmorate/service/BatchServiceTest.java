@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dal.FriendshipRepository;
+import ru.yandex.practicum.filmorate.dal.LikesRepository;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dal.status.EventOperation;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.feed.AsyncEventStorage;
+import ru.yandex.practicum.filmorate.feed.FriendsFeed;
+import ru.yandex.practicum.filmorate.feed.RecentEventsBuffer;
+import ru.yandex.practicum.filmorate.index.FriendSuggestions;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
+import ru.yandex.practicum.filmorate.mapper.EventRowMapper;
+import ru.yandex.practicum.filmorate.mapper.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.mapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.mapper.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchItemResult.Status;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Пакет пишет в собственной транзакции, поэтому тест работает без общей и сам очищает таблицы.
+ * События пишутся через асинхронное хранилище, как в приложении: в транзакции пакета они должны
+ * записываться сразу и откатываться вместе с изменениями.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"filmorate.events.async=true", "filmorate.batch.max-items=5"})
+@Import({BatchService.class,
+        ConcurrentLookups.class,
+        FilmRepository.class,
+        UserRepository.class,
+        LikesRepository.class,
+        FriendshipRepository.class,
+        EventRepository.class,
+        AsyncEventStorage.class,
+        RecentEventsBuffer.class,
+        FilmRowMapper.class,
+        FilmResultSetExtractor.class,
+        UserRowMapper.class,
+        EventRowMapper.class
+})
+class BatchServiceTest {
+    @Autowired
+    private BatchService batchService;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @SpyBean
+    private EventRepository eventRepository;
+    @MockBean
+    private PopularFilmsIndex popularFilmsIndex;
+    @MockBean
+    private RecommendationEngine recommendationEngine;
+    @MockBean
+    private SocialGraph socialGraph;
+    @MockBean
+    private FriendsFeed friendsFeed;
+    @MockBean
+    private FriendSuggestions friendSuggestions;
+
+    private int filmId;
+    private int firstUserId;
+    private int secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        filmId = jdbc.queryForObject("""
+                SELECT FILM_ID FROM FINAL TABLE (
+                    INSERT INTO FILMS (FILM_NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID)
+                    VALUES ('film', 'description', DATE '2000-01-01', 100, 1))
+                """, Integer.class);
+        firstUserId = insertUser("first");
+        secondUserId = insertUser("second");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM EVENTS");
+        jdbc.update("DELETE FROM FILMS");
+        jdbc.update("DELETE FROM USERS");
+    }
+
+    @Test
+    void likesReportStatusPerItem() {
+        List<BatchItemResult> results = batchService.applyLikes(List.of(
+                new LikeBatchItem(filmId, firstUserId, EventOperation.ADD),
+                new LikeBatchItem(filmId, firstUserId, EventOperation.ADD),
+                new LikeBatchItem(filmId + 100, firstUserId, EventOperation.ADD),
+                new LikeBatchItem(null, secondUserId, EventOperation.ADD),
+                new LikeBatchItem(filmId, secondUserId, EventOperation.UPDATE)));
+
+        assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(Status.APPLIED, Status.UNCHANGED, Status.NOT_FOUND, Status.INVALID, Status.INVALID);
+        assertThat(jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = ?", Integer.class, filmId))
+                .isEqualTo(1);
+        // Событие только для изменённого лайка
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM EVENTS", Integer.class)).isEqualTo(1);
+        verify(popularFilmsIndex).addLikes(eq(filmId), eq(1), anyLong());
+        verify(recommendationEngine).addLike(firstUserId, filmId);
+        verify(recommendationEngine, never()).removeLike(anyInt(), anyInt());
+    }
+
+    @Test
+    void friendshipsApplyInOrderAndUpdateIndexesAfterCommit() {
+        List<BatchItemResult> results = batchService.applyFriendships(List.of(
+                new FriendBatchItem(firstUserId, secondUserId, EventOperation.ADD),
+                new FriendBatchItem(firstUserId, secondUserId, EventOperation.REMOVE),
+                new FriendBatchItem(secondUserId, firstUserId, EventOperation.REMOVE),
+                new FriendBatchItem(firstUserId, secondUserId + 100, EventOperation.ADD)));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(Status.APPLIED, Status.APPLIED, Status.UNCHANGED, Status.NOT_FOUND);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM FRIENDS_LIST", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM EVENTS", Integer.class)).isEqualTo(2);
+        verify(socialGraph).addFriend(firstUserId, secondUserId);
+        verify(socialGraph).deleteFriend(firstUserId, secondUserId);
+        verify(friendsFeed).onFollowChanged(firstUserId);
+        verify(friendSuggestions).invalidate(firstUserId);
+        verify(friendsFeed, never()).onFollowChanged(secondUserId);
+    }
+
+    @Test
+    void eventFailureRollsBackChanges() {
+        doThrow(new DataIntegrityViolationException("events")).when(eventRepository).addEvents(anyList());
+
+        assertThatThrownBy(() -> batchService.applyLikes(List.of(
+                new LikeBatchItem(filmId, firstUserId, EventOperation.ADD))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM LIKE_LIST", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = ?", Integer.class, filmId))
+                .isZero();
+        verifyNoInteractions(popularFilmsIndex, recommendationEngine);
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> batchService.applyLikes(List.of()))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> batchService.applyFriendships(Collections.nCopies(6,
+                new FriendBatchItem(firstUserId, secondUserId, EventOperation.ADD))))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(socialGraph);
+    }
+
+    private int insertUser(String login) {
+        return jdbc.queryForObject("""
+                SELECT USER_ID FROM FINAL TABLE (
+                    INSERT INTO USERS (EMAIL, LOGIN, NAME, BIRTHDAY)
+                    VALUES (?, ?, ?, DATE '1990-01-01'))
+                """, Integer.class, login + "@example.com", login, login);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentLookupsTest {
+    private final ConcurrentLookups lookups = new ConcurrentLookups(true);
+
+    @AfterEach
+    void tearDown() {
+        lookups.close();
+    }
+
+    @Test
+    void runsLookupsConcurrently() {
+        // Каждая выборка ждёт другую — последовательно они бы не завершились
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        try (ConcurrentLookups.Scope scope = lookups.open()) {
+            Supplier<Boolean> a = scope.fork(() -> {
+                first.countDown();
+                return await(second);
+            });
+            Supplier<Boolean> b = scope.fork(() -> {
+                second.countDown();
+                return await(first);
+            });
+            scope.join();
+
+            assertThat(a.get()).isTrue();
+            assertThat(b.get()).isTrue();
+        }
+    }
+
+    @Test
+    void rethrowsFirstFailureInForkOrder() {
+        try (ConcurrentLookups.Scope scope = lookups.open()) {
+            scope.fork(() -> {
+                throw new NotFoundException("Фильм не найден");
+            });
+            scope.fork(() -> {
+                throw new NotFoundException("Пользователь не найден");
+            });
+
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(NotFoundException.class)
+                    .hasMessage("Фильм не найден");
+        }
+    }
+
+    @Test
+    void runsInCallerThreadWhenDisabled() {
+        ConcurrentLookups sequential = new ConcurrentLookups(false);
+        Thread caller = Thread.currentThread();
+        try (ConcurrentLookups.Scope scope = sequential.open()) {
+            Supplier<Thread> thread = scope.fork(Thread::currentThread);
+            scope.join();
+
+            assertThat(thread.get()).isSameAs(caller);
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.feed.FriendsFeed;
+import ru.yandex.practicum.filmorate.index.FriendSuggestions;
+import ru.yandex.practicum.filmorate.index.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.index.RecommendationEngine;
+import ru.yandex.practicum.filmorate.index.SocialGraph;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+    private UserStorage userStorage;
+    private FriendSuggestions friendSuggestions;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = mock(UserStorage.class);
+        friendSuggestions = mock(FriendSuggestions.class);
+        userService = new UserService(userStorage, mock(FriendshipStorage.class), mock(EventStorage.class),
+                mock(LikesStorage.class), mock(PopularFilmsIndex.class), mock(RecommendationEngine.class),
+                mock(FriendsFeed.class), mock(SocialGraph.class), friendSuggestions, mock(ConcurrentLookups.class));
+    }
+
+    @Test
+    void rejectsSuggestionCountAboveStoredLimit() {
+        assertThrows(ValidationException.class,
+                () -> userService.getSuggestions(1, FriendSuggestions.MAX_SUGGESTIONS + 1));
+        assertThrows(ValidationException.class, () -> userService.getSuggestions(1, 0));
+        verifyNoInteractions(friendSuggestions);
+    }
+
+    @Test
+    void returnsSuggestionsUpToStoredLimit() {
+        User user = User.builder().id(2).login("second").build();
+        when(friendSuggestions.getSuggestions(1, FriendSuggestions.MAX_SUGGESTIONS)).thenReturn(List.of(2));
+        when(userStorage.getUsersByIds(any())).thenReturn(List.of(user));
+
+        assertThat(userService.getSuggestions(1, FriendSuggestions.MAX_SUGGESTIONS)).containsExactly(user);
+    }
+}
@@ -1,3 +1,5 @@
+-- schema.sql в том виде, в каком он был до перехода на миграции: по нему проверяется
+-- доводка старой БД миграциями (MigrationTest)
 CREATE TABLE IF NOT EXISTS USERS
 (
     USER_ID  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
@@ -87,4 +89,4 @@ CREATE TABLE IF NOT EXISTS REVIEW_LIKES (
     USER_ID          INTEGER      NOT NULL REFERENCES USERS(USER_ID) ON DELETE CASCADE,
     IS_LIKE BOOLEAN               NOT NULL,
     PRIMARY KEY (REVIEW_ID, USER_ID)
-);
\ No newline at end of file
+);